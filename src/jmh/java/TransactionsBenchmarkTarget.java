@@ -0,0 +1,111 @@
+import benchmark.TransactionsTarget;
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.example.OperationProfiles;
+
+import java.util.List;
+
+/**
+ * The TransactionsBenchmarkTarget class seeds a {@link ScratchDatabase} shaped like the one built by
+ * {@link Modeling}, migrates it into the flight inventory model with {@link InventoryMigration} and exposes
+ * the {@link Transactions} and {@link InventoryTransactions} operations to the JMH benchmarks.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class TransactionsBenchmarkTarget implements TransactionsTarget {
+
+    private static final String DB_NAME = "TransactionsBenchmark";
+
+    private final MongoClient mongoClient;
+    private final ScratchDatabase scratch;
+    private final MongoCollection<Document> collection;
+    private final MongoCollection<Document> inventory;
+    private final Transactions transactions;
+    private final InventoryTransactions inventoryTransactions;
+    private final OperationProfiles profiles = new OperationProfiles();
+
+    /**
+     * Connects to MongoDB, drops any previous benchmark database and seeds a new one.
+     *
+     * @param connectionString The MongoDB connection string.
+     * @param airports The number of airports to create.
+     * @param flightsPerAirport The number of flights departing from every airport.
+     * @param seatsPerFlight The number of seats of every flight.
+     */
+    public TransactionsBenchmarkTarget(String connectionString, int airports, int flightsPerAirport, int seatsPerFlight) {
+        this.mongoClient = MongoClients.create(connectionString);
+        this.scratch = new ScratchDatabase(mongoClient, DB_NAME, airports, flightsPerAirport, seatsPerFlight);
+        this.collection = scratch.getCollection();
+
+        this.inventory = mongoClient.getDatabase(DB_NAME).getCollection(InventoryMigration.COLLECTION_NAME);
+        InventoryMigration.migrate(collection, inventory);
+
+        this.transactions = new Transactions(mongoClient, DB_NAME, ScratchDatabase.COLLECTION_NAME);
+        this.inventoryTransactions = new InventoryTransactions(mongoClient, DB_NAME);
+        transactions.setOperationProfiles(profiles);
+        inventoryTransactions.setOperationProfiles(profiles);
+    }
+
+    @Override
+    public List<String> airportCodes() {
+        return scratch.airportCodes();
+    }
+
+    @Override
+    public List<String> flightIds() {
+        return scratch.flightIds();
+    }
+
+    @Override
+    public List<String> seatIds() {
+        return scratch.seatIds();
+    }
+
+    @Override
+    public int searchFlights(String airportCode) {
+        return transactions.getFlightsFromAirport(airportCode).size();
+    }
+
+    @Override
+    public int availableSeats(String departureAirportCode, String arrivalAirportCode) {
+        return transactions.getAvailableSeats(departureAirportCode, arrivalAirportCode).size();
+    }
+
+    @Override
+    public boolean book(String flightID, String seatID) {
+        PeopleGenerator.Person person = new PeopleGenerator.Person("Bench", "Mark", "BENCH00", "1990-01-01", Double.MAX_VALUE);
+        return transactions.bookFlight(flightID, seatID, person);
+    }
+
+    @Override
+    public boolean bookInventory(String flightID, String seatID) {
+        PeopleGenerator.Person person = new PeopleGenerator.Person("Bench", "Mark", "BENCH00", "1990-01-01", Double.MAX_VALUE);
+        return inventoryTransactions.bookFlight(flightID, seatID, person);
+    }
+
+    @Override
+    public void setSearchReadPreference(String readPreference) {
+        OperationProfiles.Profile profile = new OperationProfiles.Profile(ReadPreference.valueOf(readPreference), ReadConcern.LOCAL, null);
+        profiles.set(OperationProfiles.SEARCH, profile);
+        profiles.set(OperationProfiles.SEAT_LISTING, profile);
+    }
+
+    @Override
+    public void resetSeats() {
+        collection.updateMany(new Document(), Updates.set("Flights.$[].Seats.$[].Status", "Vacant"));
+        inventory.updateMany(new Document(), Updates.set("Seats.$[].Status", "Vacant"));
+    }
+
+    @Override
+    public void close() {
+        scratch.close();
+        transactions.close();
+    }
+}
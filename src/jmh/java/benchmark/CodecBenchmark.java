@@ -0,0 +1,116 @@
+package benchmark;
+
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.example.Airport;
+import org.example.AirportCodecProvider;
+import org.example.Flight;
+import org.example.Seat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks comparing the {@code AirportCodec} with the {@code Document} path it replaces, i.e.
+ * {@code Airport.toDocument()} followed by the driver's {@code DocumentCodec}, on one airport the size
+ * generated by {@code Modeling}. Everything is in memory: encoding writes to a reused buffer and decoding
+ * reads the bytes of the encoded airport. Add {@code -prof gc} to compare the allocation per operation.
+ *
+ * <pre>
+ * {@code
+ * mvn -P benchmark package
+ * java -jar target/benchmarks.jar CodecBenchmark -prof gc
+ * }
+ * </pre>
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CodecBenchmark {
+
+    @Param("5")
+    public int flights;
+
+    @Param("100")
+    public int seatsPerFlight;
+
+    private final Codec<Airport> airportCodec = AirportCodecProvider.REGISTRY.get(Airport.class);
+    private final Codec<Document> documentCodec = MongoClientSettings.getDefaultCodecRegistry().get(Document.class);
+    private final EncoderContext encoderContext = EncoderContext.builder().build();
+    private final DecoderContext decoderContext = DecoderContext.builder().build();
+    private final BasicOutputBuffer buffer = new BasicOutputBuffer(1 << 16);
+
+    private Airport airport;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Flight> flightList = new ArrayList<>(flights);
+        for (int f = 0; f < flights; f++) {
+            List<Seat> seats = new ArrayList<>(seatsPerFlight);
+            for (int s = 0; s < seatsPerFlight; s++) {
+                boolean booked = s % 3 == 0;
+                seats.add(new Seat(booked ? "Booked" : "Vacant", (s / 6 + 1) + String.valueOf((char) ('A' + s % 6)),
+                        booked ? "Mario" : "", booked ? "Rossi" : "", booked ? "AB1234567" : "",
+                        booked ? "1990-01-01" : "", booked ? 1500 : 0));
+            }
+            flightList.add(new Flight("FL" + f, seatsPerFlight, "2024-07-0" + (f + 1), "10:30", "Alitalia",
+                    "2h 15m", 250, seats, new ObjectId()));
+        }
+        airport = new Airport("45.63; 8.72", "Malpensa", "Milan Malpensa Airport", "Aéroport de Milan Malpensa",
+                "MXP", "LIMC", "SEA", "Italy", "IT", 3, flightList);
+        encoded = encodeWithCodec().clone();
+    }
+
+    @Benchmark
+    public byte[] encodeWithCodec() {
+        buffer.truncateToPosition(0);
+        airportCodec.encode(new BsonBinaryWriter(buffer), airport, encoderContext);
+        return buffer.getInternalBuffer();
+    }
+
+    @Benchmark
+    public byte[] encodeThroughDocument() {
+        buffer.truncateToPosition(0);
+        documentCodec.encode(new BsonBinaryWriter(buffer), airport.toDocument(), encoderContext);
+        return buffer.getInternalBuffer();
+    }
+
+    @Benchmark
+    public Airport decodeWithCodec() {
+        return airportCodec.decode(new BsonBinaryReader(ByteBuffer.wrap(encoded)), decoderContext);
+    }
+
+    @Benchmark
+    public Document decodeToDocument() {
+        return documentCodec.decode(new BsonBinaryReader(ByteBuffer.wrap(encoded)), decoderContext);
+    }
+}
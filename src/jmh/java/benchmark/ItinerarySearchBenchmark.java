@@ -0,0 +1,112 @@
+package benchmark;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.example.FlightNetwork;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of multi-leg itinerary queries on a synthetic {@link FlightNetwork} the size of the
+ * Airports data set, entirely in memory: airports at random positions, each with flights to random
+ * destinations over ten days, as generated by {@code Modeling}.
+ *
+ * <pre>
+ * {@code
+ * mvn -P benchmark package
+ * java -jar target/benchmarks.jar ItinerarySearchBenchmark
+ * }
+ * </pre>
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ItinerarySearchBenchmark {
+
+    @Param("3000")
+    public int airports;
+
+    @Param("5")
+    public int flightsPerAirport;
+
+    @Param({"2", "3"})
+    public int maxLegs;
+
+    @Param("60")
+    public int minConnectionMinutes;
+
+    private FlightNetwork network;
+    private final LocalDateTime notBefore = LocalDate.of(2024, 7, 1).atStartOfDay();
+
+    /**
+     * Per-thread random generator picking the routes to search.
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+        final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Document> docs = new ArrayList<>(airports);
+        for (int i = 0; i < airports; i++) {
+            docs.add(new Document("_id", new ObjectId())
+                    .append("IATA_code", code(i))
+                    .append("Geo_Point", (random.nextDouble() * 120 - 60) + "; " + (random.nextDouble() * 360 - 180)));
+        }
+        for (Document airport : docs) {
+            List<Document> flights = new ArrayList<>(flightsPerAirport);
+            for (int j = 0; j < flightsPerAirport; j++) {
+                flights.add(new Document("ID", new ObjectId().toString())
+                        .append("Day", notBefore.toLocalDate().plusDays(random.nextInt(10) + 1).toString())
+                        .append("Hour", String.format("%02d:%02d", random.nextInt(24), random.nextInt(60)))
+                        .append("Duration", (random.nextInt(14) + 1) + " hours")
+                        .append("Price_per_Person", random.nextInt(461) + 39)
+                        .append("Destination", docs.get(random.nextInt(airports)).getObjectId("_id")));
+            }
+            airport.append("Flights", flights);
+        }
+        network = new FlightNetwork(docs);
+    }
+
+    private static String code(int i) {
+        return String.valueOf(new char[]{(char) ('A' + i / 676 % 26), (char) ('A' + i / 26 % 26), (char) ('A' + i % 26)});
+    }
+
+    @Benchmark
+    public FlightNetwork.Itinerary cheapest(ThreadState state) {
+        return network.cheapest(code(state.random.nextInt(airports)), code(state.random.nextInt(airports)),
+                notBefore, maxLegs, minConnectionMinutes);
+    }
+
+    @Benchmark
+    public FlightNetwork.Itinerary earliestArrival(ThreadState state) {
+        return network.earliestArrival(code(state.random.nextInt(airports)), code(state.random.nextInt(airports)),
+                notBefore, maxLegs, minConnectionMinutes);
+    }
+}
@@ -0,0 +1,105 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of search throughput as flight searches and seat listings are moved from the primary to
+ * the secondaries of a replica set, one run per read preference of the search profile. Against a
+ * standalone server or a single-member replica set every read preference ends up on the same node, so
+ * point {@code connectionString} at a replica set with secondaries:
+ *
+ * <pre>
+ * {@code
+ * mvn -P benchmark package
+ * java -jar target/benchmarks.jar SearchOffloadBenchmark -p connectionString="mongodb://host1,host2,host3/?replicaSet=rs0"
+ * }
+ * </pre>
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class SearchOffloadBenchmark {
+
+    @Param("mongodb://localhost:27017")
+    public String connectionString;
+
+    @Param({"primary", "primaryPreferred", "secondaryPreferred", "secondary", "nearest"})
+    public String readPreference;
+
+    @Param("20")
+    public int airports;
+
+    @Param("5")
+    public int flightsPerAirport;
+
+    @Param("1000")
+    public int seatsPerFlight;
+
+    private TransactionsTarget target;
+    private List<String> airportCodes;
+
+    /**
+     * Per-thread random generator picking the airports to search from.
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+        final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        target = TransactionsTarget.connect(connectionString, airports, flightsPerAirport, seatsPerFlight);
+        target.setSearchReadPreference(readPreference);
+        airportCodes = target.airportCodes();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        target.close();
+    }
+
+    /**
+     * Flight search throughput with many concurrent searchers.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(16)
+    public int searchFlights(ThreadState state) {
+        return target.searchFlights(airportCodes.get(state.random.nextInt(airportCodes.size())));
+    }
+
+    /**
+     * Seat listing throughput with many concurrent searchers.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(16)
+    public int availableSeats(ThreadState state) {
+        int departure = state.random.nextInt(airportCodes.size());
+        return target.availableSeats(airportCodes.get(departure), airportCodes.get((departure + 1) % airportCodes.size()));
+    }
+}
@@ -0,0 +1,101 @@
+package benchmark;
+
+import org.example.Flight;
+import org.example.FlightTimes;
+import org.example.Seat;
+import org.example.SeatInventory;
+import org.example.SeatStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the seat-state transitions of a {@link SeatInventory} shared by every thread: each
+ * operation books a random seat of one of a few hot flights and, if it got it, releases it again, so that
+ * the threads keep colliding on the same bitmap words. Run with {@code -t} to vary the number of threads.
+ *
+ * <pre>
+ * {@code
+ * mvn -P benchmark package
+ * java -jar target/benchmarks.jar SeatInventoryBenchmark -t 8
+ * }
+ * </pre>
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(Threads.MAX)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SeatInventoryBenchmark {
+
+    @Param("4")
+    public int flights;
+
+    @Param("100")
+    public int seatsPerFlight;
+
+    private SeatInventory inventory;
+    private String[] flightIds;
+    private String[] seatIds;
+
+    /**
+     * The random source of one thread.
+     */
+    @State(Scope.Thread)
+    public static class Picker {
+        final SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        inventory = new SeatInventory();
+        flightIds = new String[flights];
+        seatIds = new String[seatsPerFlight];
+        for (int s = 0; s < seatsPerFlight; s++) {
+            seatIds[s] = (s / 6 + 1) + String.valueOf((char) ('A' + s % 6));
+        }
+        for (int f = 0; f < flights; f++) {
+            List<Seat> seats = new ArrayList<>(seatsPerFlight);
+            for (String seatId : seatIds) {
+                seats.add(new Seat(SeatStatus.VACANT, seatId, null, null, null, null, 0));
+            }
+            flightIds[f] = "FL" + f;
+            inventory.addFlight("DEP", "ARR" + f, new Flight(flightIds[f], seatsPerFlight,
+                    FlightTimes.UNKNOWN_DEPARTURE, null, 60, 100, seats, null));
+        }
+    }
+
+    @Benchmark
+    public boolean bookAndRelease(Picker picker) {
+        String flightID = flightIds[picker.random.nextInt(flightIds.length)];
+        String seatID = seatIds[picker.random.nextInt(seatIds.length)];
+        return inventory.tryBook(flightID, seatID) == SeatInventory.Result.BOOKED
+                && inventory.release(flightID, seatID);
+    }
+
+    @Benchmark
+    public int listVacantSeats(Picker picker) {
+        return inventory.vacantSeatIds(flightIds[picker.random.nextInt(flightIds.length)]).size();
+    }
+}
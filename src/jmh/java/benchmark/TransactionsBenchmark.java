@@ -0,0 +1,186 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JMH benchmarks for the hot paths of {@code Transactions}: flight search, seat listing and booking.
+ * They run against a real cluster, by default the mongos started with {@code docker compose up}, on a
+ * synthetic database seeded by {@link TransactionsTarget#connect}.
+ *
+ * <p>Every seat is made vacant again before each iteration. Booking benchmarks measure booking attempts,
+ * which include conflicts once the seats picked at random are already taken.
+ *
+ * <pre>
+ * {@code
+ * mvn -P benchmark package
+ * java -jar target/benchmarks.jar TransactionsBenchmark -p connectionString=mongodb://localhost:27017
+ * java -jar target/benchmarks.jar "TransactionsBenchmark.book(SameFlight|AcrossFlights)" -t 16
+ * }
+ * </pre>
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class TransactionsBenchmark {
+
+    @Param("mongodb://localhost:27017")
+    public String connectionString;
+
+    @Param("20")
+    public int airports;
+
+    @Param("5")
+    public int flightsPerAirport;
+
+    @Param("1000")
+    public int seatsPerFlight;
+
+    private TransactionsTarget target;
+    private List<String> airportCodes;
+    private List<String> flightIds;
+    private List<String> seatIds;
+    private final AtomicInteger nextThread = new AtomicInteger();
+
+    /**
+     * Per-thread state: a private random generator and the flight this thread books on when the
+     * load is spread across flights.
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+        SplittableRandom random;
+        String ownFlightId;
+
+        @Setup(Level.Trial)
+        public void setUp(TransactionsBenchmark benchmark) {
+            int thread = benchmark.nextThread.getAndIncrement();
+            random = new SplittableRandom(thread);
+            ownFlightId = benchmark.flightIds.get(thread % benchmark.flightIds.size());
+        }
+
+        String randomSeat(List<String> seatIds) {
+            return seatIds.get(random.nextInt(seatIds.size()));
+        }
+
+        String randomHubFlight(List<String> flightIds, int flightsPerAirport) {
+            // The flights of the first airport come first
+            return flightIds.get(random.nextInt(flightsPerAirport));
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        target = TransactionsTarget.connect(connectionString, airports, flightsPerAirport, seatsPerFlight);
+        airportCodes = target.airportCodes();
+        flightIds = target.flightIds();
+        seatIds = target.seatIds();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetSeats() {
+        target.resetSeats();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        target.close();
+    }
+
+    /**
+     * Single-threaded latency of {@code getFlightsFromAirport}.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int searchFlights(ThreadState state) {
+        return target.searchFlights(airportCodes.get(state.random.nextInt(airportCodes.size())));
+    }
+
+    /**
+     * Single-threaded latency of {@code getAvailableSeats} on a route that always exists.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int availableSeats() {
+        return target.availableSeats(airportCodes.get(0), airportCodes.get(1));
+    }
+
+    /**
+     * Single-threaded latency of {@code bookFlight} on random flights and seats.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean bookSingle(ThreadState state) {
+        return target.book(flightIds.get(state.random.nextInt(flightIds.size())), state.randomSeat(seatIds));
+    }
+
+    /**
+     * Booking throughput with every thread contending for the seats of the same flight.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(8)
+    public boolean bookSameFlight(ThreadState state) {
+        return target.book(flightIds.get(0), state.randomSeat(seatIds));
+    }
+
+    /**
+     * Booking throughput with the same number of threads, each booking on its own flight.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(8)
+    public boolean bookAcrossFlights(ThreadState state) {
+        return target.book(state.ownFlightId, state.randomSeat(seatIds));
+    }
+
+    /**
+     * Booking throughput on the flights of a single hot hub, in the nested model where all of them live
+     * in the document of the departure airport.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(8)
+    public boolean bookHotHubNested(ThreadState state) {
+        return target.book(state.randomHubFlight(flightIds, flightsPerAirport), state.randomSeat(seatIds));
+    }
+
+    /**
+     * Booking throughput on the flights of the same hot hub, in the flight inventory model where every
+     * flight is its own document.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(8)
+    public boolean bookHotHubInventory(ThreadState state) {
+        return target.bookInventory(state.randomHubFlight(flightIds, flightsPerAirport), state.randomSeat(seatIds));
+    }
+}
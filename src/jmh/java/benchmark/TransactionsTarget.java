@@ -0,0 +1,109 @@
+package benchmark;
+
+import java.util.List;
+
+/**
+ * The TransactionsTarget interface is the view the JMH benchmarks have of the {@code Transactions} class.
+ * JMH cannot generate benchmarks in the default package, where {@code Transactions} lives, and classes in a
+ * named package cannot refer to it directly, so the benchmarks go through this interface and the
+ * implementation is loaded by name.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public interface TransactionsTarget extends AutoCloseable {
+
+    /**
+     * Name of the default-package class implementing this interface.
+     */
+    String IMPLEMENTATION = "TransactionsBenchmarkTarget";
+
+    /**
+     * Connects to MongoDB and seeds a fresh benchmark database.
+     *
+     * @param connectionString The MongoDB connection string, e.g. the mongos of docker-compose.yml.
+     * @param airports The number of airports to create.
+     * @param flightsPerAirport The number of flights departing from every airport.
+     * @param seatsPerFlight The number of seats of every flight.
+     * @return The target the benchmarks run against.
+     */
+    static TransactionsTarget connect(String connectionString, int airports, int flightsPerAirport, int seatsPerFlight) {
+        try {
+            return (TransactionsTarget) Class.forName(IMPLEMENTATION)
+                    .getConstructor(String.class, int.class, int.class, int.class)
+                    .newInstance(connectionString, airports, flightsPerAirport, seatsPerFlight);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create " + IMPLEMENTATION, e);
+        }
+    }
+
+    /**
+     * @return The IATA codes of the seeded airports.
+     */
+    List<String> airportCodes();
+
+    /**
+     * @return The IDs of the seeded flights, grouped by departure airport in the order of {@link #airportCodes()}.
+     */
+    List<String> flightIds();
+
+    /**
+     * @return The IDs of the seats every seeded flight has.
+     */
+    List<String> seatIds();
+
+    /**
+     * Calls {@code Transactions.getFlightsFromAirport}.
+     *
+     * @param airportCode The IATA code of the departure airport.
+     * @return The number of destinations found.
+     */
+    int searchFlights(String airportCode);
+
+    /**
+     * Calls {@code Transactions.getAvailableSeats}.
+     *
+     * @param departureAirportCode The IATA code of the departure airport.
+     * @param arrivalAirportCode The IATA code of the arrival airport.
+     * @return The number of vacant seats.
+     */
+    int availableSeats(String departureAirportCode, String arrivalAirportCode);
+
+    /**
+     * Calls {@code Transactions.bookFlight} for a passenger with enough balance for any flight.
+     *
+     * @param flightID The ID of the flight to book.
+     * @param seatID The ID of the seat to book.
+     * @return True if the seat was booked, false if it was already taken.
+     */
+    boolean book(String flightID, String seatID);
+
+    /**
+     * Calls {@code InventoryTransactions.bookFlight}, i.e. books against the flight inventory collection
+     * holding one document per flight, for a passenger with enough balance for any flight.
+     *
+     * @param flightID The ID of the flight to book.
+     * @param seatID The ID of the seat to book.
+     * @return True if the seat was booked, false if it was already taken.
+     */
+    boolean bookInventory(String flightID, String seatID);
+
+    /**
+     * Sets the read preference of flight searches and seat listings, keeping read concern {@code local}.
+     *
+     * @param readPreference The name of the read preference, e.g. {@code primary} or {@code secondaryPreferred}.
+     */
+    void setSearchReadPreference(String readPreference);
+
+    /**
+     * Marks every seat of the benchmark database as vacant again, in both models.
+     */
+    void resetSeats();
+
+    /**
+     * Drops the benchmark database and closes the client.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,189 @@
+import org.example.ConnectionRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The BookingConcurrencyCheck class checks {@link Transactions#bookFlight} under concurrency, against a
+ * {@link ScratchDatabase} seeded on the cluster of connections.properties and dropped afterwards:
+ * <ol>
+ * <li>several threads race for the same seat, round after round on different seats, and every seat must be
+ * booked exactly once;
+ * <li>the seats are booked with an increasing number of threads, each on its own flight, so that the threads
+ * do not compete for the same seats or lock stripe, and the bookings per second of each thread count are logged.
+ * </ol>
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class BookingConcurrencyCheck {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingConcurrencyCheck.class);
+
+    private static final String DB_NAME = "BookingConcurrencyCheck";
+
+    /**
+     * Number of threads racing for the same seat.
+     */
+    private static final int RACING_THREADS = 16;
+
+    /**
+     * Number of seats raced for, one after the other.
+     */
+    private static final int RACE_ROUNDS = 20;
+
+    /**
+     * Thread counts of the booking throughput sweep.
+     */
+    private static final int[] SWEEP_THREADS = {1, 2, 4, 8, 16, 32};
+
+    /**
+     * Bookings attempted by each thread of the throughput sweep, each on a different seat of its flight.
+     */
+    private static final int SWEEP_BOOKINGS_PER_THREAD = 50;
+
+    /**
+     * Seeds the scratch database, runs the race and the sweep, and drops the database.
+     *
+     * @param args Command line arguments (not used).
+     * @throws IOException if connections.properties cannot be read.
+     * @throws IllegalStateException if a seat was booked other than exactly once.
+     */
+    public static void main(String[] args) throws IOException {
+        int maxThreads = SWEEP_THREADS[SWEEP_THREADS.length - 1];
+        try (ConnectionRegistry registry = ConnectionRegistry.load();
+             ScratchDatabase scratch = new ScratchDatabase(registry.getClient(ConnectionRegistry.BOOKING), DB_NAME,
+                     maxThreads / 4 + 1, 4, Math.max(SWEEP_BOOKINGS_PER_THREAD, RACE_ROUNDS))) {
+            Transactions transactions = new Transactions(registry.getClient(ConnectionRegistry.SEARCH),
+                    registry.getClient(ConnectionRegistry.BOOKING), DB_NAME, ScratchDatabase.COLLECTION_NAME);
+            transactions.setOperationProfiles(registry.getOperationProfiles());
+
+            String flightID = scratch.flightIds().get(0);
+            logger.info("{} threads are racing for each of {} seats of flight {}", RACING_THREADS, RACE_ROUNDS, flightID);
+            long start = System.nanoTime();
+            for (int round = 0; round < RACE_ROUNDS; round++) {
+                String seatID = scratch.seatIds().get(round);
+                int successfulBookings = raceForSeat(transactions, flightID, seatID, people("RACE" + round + "-", RACING_THREADS));
+                if (successfulBookings != 1) {
+                    throw new IllegalStateException("Seat " + seatID + " of flight " + flightID + " was booked "
+                            + successfulBookings + " times by " + RACING_THREADS + " racing threads");
+                }
+            }
+            logger.info("Every seat was booked exactly once, in {} ms", (System.nanoTime() - start) / 1_000_000);
+
+            for (int threads : SWEEP_THREADS) {
+                scratch.resetSeats();
+                sweepBookingThroughput(transactions, scratch, threads);
+            }
+        }
+    }
+
+    /**
+     * Lets every person try to book the same seat at the same time, each on its own thread.
+     *
+     * @param transactions The Transactions instance used to book.
+     * @param flightID The ID of the flight to book.
+     * @param seatID The ID of the seat every person competes for.
+     * @param people The people attempting to book the seat.
+     * @return The number of bookings that succeeded, which must never exceed 1.
+     */
+    private static int raceForSeat(Transactions transactions, String flightID, String seatID,
+                                   List<PeopleGenerator.Person> people) {
+        ExecutorService executor = Executors.newFixedThreadPool(people.size());
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (PeopleGenerator.Person person : people) {
+                results.add(executor.submit(() -> {
+                    startSignal.await();
+                    return transactions.bookFlight(flightID, seatID, person);
+                }));
+            }
+            startSignal.countDown();
+
+            int successfulBookings = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    successfulBookings++;
+                }
+            }
+            return successfulBookings;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the booking threads", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A booking thread failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Books {@value #SWEEP_BOOKINGS_PER_THREAD} seats on each thread, every thread on its own flight of the
+     * scratch database, and logs the bookings per second.
+     *
+     * @param transactions The Transactions instance used to book.
+     * @param scratch The scratch database, with every seat vacant.
+     * @param threads The number of booking threads.
+     */
+    private static void sweepBookingThroughput(Transactions transactions, ScratchDatabase scratch, int threads) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                String flightID = scratch.flightIds().get(t);
+                List<PeopleGenerator.Person> passengers = people("SWEEP" + threads + "-" + t + "-", SWEEP_BOOKINGS_PER_THREAD);
+                results.add(executor.submit(() -> {
+                    startSignal.await();
+                    int booked = 0;
+                    for (int i = 0; i < passengers.size(); i++) {
+                        if (transactions.bookFlight(flightID, scratch.seatIds().get(i), passengers.get(i))) {
+                            booked++;
+                        }
+                    }
+                    return booked;
+                }));
+            }
+            long start = System.nanoTime();
+            startSignal.countDown();
+            int booked = 0;
+            for (Future<Integer> result : results) {
+                booked += result.get();
+            }
+            long elapsedNanos = System.nanoTime() - start;
+            logger.info("{} threads: {} of {} bookings in {} ms, {} bookings/s", threads, booked,
+                    threads * SWEEP_BOOKINGS_PER_THREAD, elapsedNanos / 1_000_000,
+                    String.format("%.1f", booked * 1e9 / elapsedNanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the booking threads", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A booking thread failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @param documentPrefix The prefix of the document numbers, which makes them distinct across calls.
+     * @param count The number of people.
+     * @return People who can afford any seat of the scratch database.
+     */
+    private static List<PeopleGenerator.Person> people(String documentPrefix, int count) {
+        List<PeopleGenerator.Person> people = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            people.add(new PeopleGenerator.Person("Check", "Passenger" + i, documentPrefix + i, "1990-01-01", 1_000_000));
+        }
+        return people;
+    }
+}
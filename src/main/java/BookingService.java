@@ -0,0 +1,290 @@
+import org.example.ConnectionRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The BookingService class runs searches and bookings on top of a {@link BookingStore} asynchronously.
+ * By default every request gets its own virtual thread, so blocking on the synchronous driver costs no
+ * platform thread, and a semaphore bounds how many requests use the driver at the same time, so that
+ * requests queue here instead of inside the connection pool.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class BookingService implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingService.class);
+
+    /**
+     * Default number of requests allowed to use the driver at once, matching the driver's default pool size.
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 100;
+
+    private final BookingStore store;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    /**
+     * Constructs a BookingService running every request on its own virtual thread.
+     *
+     * @param store The store requests are executed with, e.g. a Transactions instance.
+     * @param maxConcurrentRequests The maximum number of requests using the driver at the same time.
+     */
+    public BookingService(BookingStore store, int maxConcurrentRequests) {
+        this(store, Executors.newVirtualThreadPerTaskExecutor(), maxConcurrentRequests);
+    }
+
+    /**
+     * Constructs a BookingService on the given executor.
+     *
+     * @param store The store requests are executed with, e.g. a Transactions instance.
+     * @param executor The executor running the requests; it is shut down by {@link #close()}.
+     * @param maxConcurrentRequests The maximum number of requests using the driver at the same time.
+     */
+    public BookingService(BookingStore store, ExecutorService executor, int maxConcurrentRequests) {
+        if (maxConcurrentRequests <= 0) {
+            throw new IllegalArgumentException("The concurrency limit must be positive: " + maxConcurrentRequests);
+        }
+        this.store = store;
+        this.executor = executor;
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+    }
+
+    /**
+     * Asynchronously retrieves the flights departing from the specified airport.
+     *
+     * @param airportCode The IATA code of the departure airport.
+     * @return A future completed with the flight details keyed by destination airport IATA code.
+     */
+    public CompletableFuture<Map<String, Map<String, String>>> getFlightsFromAirport(String airportCode) {
+        return submit(() -> store.getFlightsFromAirport(airportCode));
+    }
+
+    /**
+     * Asynchronously retrieves the available seats of the flight between two airports.
+     *
+     * @param departureAirportCode The IATA code of the departure airport.
+     * @param arrivalAirportCode The IATA code of the arrival airport.
+     * @return A future completed with the IDs of the available seats.
+     */
+    public CompletableFuture<List<String>> getAvailableSeats(String departureAirportCode, String arrivalAirportCode) {
+        return submit(() -> store.getAvailableSeats(departureAirportCode, arrivalAirportCode));
+    }
+
+    /**
+     * Asynchronously books a seat for a person.
+     *
+     * @param flightID The ID of the flight to book.
+     * @param seatID The ID of the seat to book.
+     * @param person The person attempting to book the flight.
+     * @return A future completed with true if the booking succeeded.
+     */
+    public CompletableFuture<Boolean> bookFlight(String flightID, String seatID, PeopleGenerator.Person person) {
+        return submit(() -> store.bookFlight(flightID, seatID, person));
+    }
+
+    /**
+     * Asynchronously books several seats of a flight as a single unit.
+     *
+     * @param flightID The ID of the flight to book.
+     * @param seatIDs The IDs of the seats to book.
+     * @param people The people to book, where the i-th person gets the i-th seat.
+     * @return A future completed with true if every seat was booked.
+     */
+    public CompletableFuture<Boolean> bookSeats(String flightID, List<String> seatIDs, List<PeopleGenerator.Person> people) {
+        return submit(() -> store.bookSeats(flightID, seatIDs, people));
+    }
+
+    /**
+     * Runs the task on the executor once a permit is available.
+     *
+     * @param task The task to run.
+     * @return A future completed with the result of the task.
+     */
+    private <T> CompletableFuture<T> submit(Callable<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+            try {
+                return task.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    /**
+     * Stops accepting requests and waits for the running ones to complete.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    /**
+     * Simulates many concurrent clients, each searching flights, listing seats and booking a random seat,
+     * and logs the elapsed time of two runs over the same workload:
+     * <ol>
+     * <li>the baseline, one blocking request per client on a fixed pool of platform threads, as the
+     * application did before this service;
+     * <li>this service, with one virtual thread per request and the concurrency limit.
+     * </ol>
+     * Both runs book the only flight between the first two airports of a {@link ScratchDatabase}, seeded on
+     * the cluster of connections.properties and dropped afterwards. Between the runs the seats are set back to
+     * vacant and the same clients are generated again, so that both runs book the same seats for the same people.
+     *
+     * @param args Optional arguments: the number of clients, the number of seats of the flight and the size
+     *             of the platform thread pool.
+     * @throws IOException if connections.properties cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seats = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+        int platformThreads = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        long seed = 42;
+
+        try (ConnectionRegistry registry = ConnectionRegistry.load();
+             ScratchDatabase scratch = new ScratchDatabase(registry.getClient(ConnectionRegistry.BOOKING),
+                     "BookingServiceComparison", 2, 1, seats)) {
+            Transactions transactions = new Transactions(registry.getClient(ConnectionRegistry.SEARCH),
+                    registry.getClient(ConnectionRegistry.BOOKING), scratch.getDatabaseName(), ScratchDatabase.COLLECTION_NAME);
+            transactions.setOperationProfiles(registry.getOperationProfiles());
+            String departureAirportCode = scratch.airportCodes().get(0);
+            String arrivalAirportCode = scratch.airportCodes().get(1);
+
+            ExecutorService pool = Executors.newFixedThreadPool(platformThreads);
+            try {
+                simulateBlocking("Platform threads (" + platformThreads + "), blocking", transactions, pool,
+                        new PeopleGenerator(seed).generatePeople(clients), departureAirportCode, arrivalAirportCode);
+            } finally {
+                pool.shutdown();
+            }
+
+            scratch.resetSeats();
+            try (BookingService virtual = new BookingService(transactions, DEFAULT_MAX_CONCURRENT_REQUESTS)) {
+                simulate("Virtual threads, asynchronous", virtual, new PeopleGenerator(seed).generatePeople(clients),
+                        departureAirportCode, arrivalAirportCode);
+            }
+        }
+    }
+
+    /**
+     * Runs one simulated client per person as a single blocking task on the given pool, calling the store
+     * directly, and waits for all of them.
+     *
+     * @param label The label logged with the results.
+     * @param store The store the clients use.
+     * @param pool The platform threads the clients run on.
+     * @param people The simulated clients.
+     * @param departureAirportCode The IATA code of the departure airport.
+     * @param arrivalAirportCode The IATA code of the arrival airport.
+     */
+    private static void simulateBlocking(String label, BookingStore store, ExecutorService pool,
+                                         List<PeopleGenerator.Person> people,
+                                         String departureAirportCode, String arrivalAirportCode) {
+        AtomicInteger bookings = new AtomicInteger();
+        List<Future<?>> clients = new ArrayList<>(people.size());
+        long start = System.nanoTime();
+
+        for (PeopleGenerator.Person person : people) {
+            clients.add(pool.submit(() -> {
+                Map<String, String> flight = store.getFlightsFromAirport(departureAirportCode).get(arrivalAirportCode);
+                if (flight == null) {
+                    return;
+                }
+                List<String> seats = store.getAvailableSeats(departureAirportCode, arrivalAirportCode);
+                if (!seats.isEmpty()
+                        && store.bookFlight(flight.get("ID"), seats.get(ThreadLocalRandom.current().nextInt(seats.size())), person)) {
+                    bookings.incrementAndGet();
+                }
+            }));
+        }
+        try {
+            for (Future<?> client : clients) {
+                client.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the clients", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A client failed", e.getCause());
+        }
+
+        logResults(label, people.size(), System.nanoTime() - start, bookings.get());
+    }
+
+    /**
+     * Starts one simulated client per person and waits for all of them.
+     *
+     * @param label The label logged with the results.
+     * @param service The service the clients use.
+     * @param people The simulated clients.
+     * @param departureAirportCode The IATA code of the departure airport.
+     * @param arrivalAirportCode The IATA code of the arrival airport.
+     */
+    private static void simulate(String label, BookingService service, List<PeopleGenerator.Person> people,
+                                 String departureAirportCode, String arrivalAirportCode) {
+        AtomicInteger bookings = new AtomicInteger();
+        List<CompletableFuture<?>> clients = new ArrayList<>(people.size());
+        long start = System.nanoTime();
+
+        for (PeopleGenerator.Person person : people) {
+            clients.add(service.getFlightsFromAirport(departureAirportCode)
+                    .thenCompose(flights -> {
+                        Map<String, String> flight = flights.get(arrivalAirportCode);
+                        if (flight == null) {
+                            return CompletableFuture.completedFuture(false);
+                        }
+                        return service.getAvailableSeats(departureAirportCode, arrivalAirportCode)
+                                .thenCompose(seats -> seats.isEmpty()
+                                        ? CompletableFuture.completedFuture(false)
+                                        : service.bookFlight(flight.get("ID"),
+                                        seats.get(ThreadLocalRandom.current().nextInt(seats.size())), person));
+                    })
+                    .thenAccept(booked -> {
+                        if (booked) {
+                            bookings.incrementAndGet();
+                        }
+                    }));
+        }
+        CompletableFuture.allOf(clients.toArray(new CompletableFuture<?>[0])).join();
+
+        logResults(label, people.size(), System.nanoTime() - start, bookings.get());
+    }
+
+    /**
+     * Logs the elapsed time, the throughput and the successful bookings of a run.
+     *
+     * @param label The label of the run.
+     * @param clients The number of simulated clients.
+     * @param elapsedNanos The duration of the run in nanoseconds.
+     * @param bookings The number of successful bookings.
+     */
+    private static void logResults(String label, int clients, long elapsedNanos, int bookings) {
+        long elapsedMillis = elapsedNanos / 1_000_000;
+        logger.info("{}: {} clients in {} ms ({} clients/s), {} successful bookings", label, clients, elapsedMillis,
+                String.format("%.1f", clients * 1000.0 / Math.max(elapsedMillis, 1)), bookings);
+    }
+}
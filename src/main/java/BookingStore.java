@@ -0,0 +1,62 @@
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The BookingStore interface is the flight search, seat listing and booking logic the application needs
+ * from a database, so that the same workload can be run against each store and compared:
+ * {@link Transactions} on MongoDB and {@link CassandraBookingStore} on Cassandra.
+ *
+ * <p>Implementations are safe for use by concurrent threads, and a seat is never booked twice, even by
+ * bookings racing from different processes.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public interface BookingStore extends AutoCloseable {
+
+    /**
+     * Retrieves flights departing from the specified airport.
+     *
+     * @param airportCode The IATA code of the departure airport.
+     * @return A map containing the flight details ({@code ID}, {@code Name}, {@code IATA_code} and
+     *         {@code Country} of the destination) keyed by destination airport IATA code.
+     */
+    Map<String, Map<String, String>> getFlightsFromAirport(String airportCode);
+
+    /**
+     * Retrieves the available seats of the flight between two airports.
+     *
+     * @param departureAirportCode The IATA code of the departure airport.
+     * @param arrivalAirportCode The IATA code of the arrival airport.
+     * @return The IDs of the vacant seats, empty if there is no such flight.
+     */
+    List<String> getAvailableSeats(String departureAirportCode, String arrivalAirportCode);
+
+    /**
+     * Books a seat for a person, if it is vacant and the person can pay for it. On success the price is
+     * deducted from the balance of the person.
+     *
+     * @param flightID The ID of the flight to book.
+     * @param seatID The ID of the seat to book.
+     * @param person The person attempting to book the flight.
+     * @return True if the booking is successful, false otherwise.
+     */
+    boolean bookFlight(String flightID, String seatID, PeopleGenerator.Person person);
+
+    /**
+     * Books several seats of a flight as a single unit: either every seat is booked or none is.
+     *
+     * @param flightID The ID of the flight to book.
+     * @param seatIDs The IDs of the seats to book, without duplicates.
+     * @param people The people to book, where the i-th person gets the i-th seat.
+     * @return True if every seat was booked, false if none was.
+     */
+    boolean bookSeats(String flightID, List<String> seatIDs, List<PeopleGenerator.Person> people);
+
+    /**
+     * Closes the connections of the store.
+     */
+    @Override
+    void close();
+}
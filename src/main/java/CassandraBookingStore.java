@@ -0,0 +1,431 @@
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.CqlSessionBuilder;
+import com.datastax.oss.driver.api.core.DefaultConsistencyLevel;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BatchStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.BatchType;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.ResultSet;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Projections;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.example.Airport;
+import org.example.AirportCodecProvider;
+import org.example.BookingAuditLog;
+import org.example.ConnectionRegistry;
+import org.example.Flight;
+import org.example.LatencyMetrics;
+import org.example.Seat;
+import org.example.SeatStatus;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The CassandraBookingStore class is the Cassandra {@link BookingStore}, on two tables designed for its
+ * queries, so that every operation reads or writes a single partition:
+ * <ul>
+ * <li>{@code flights_by_departure}, partitioned by departure airport and clustered by arrival airport and
+ * flight ID, with the name and country of the destination: serves flight searches and finds the flight of
+ * a route for seat listings.
+ * <li>{@code seats_by_flight}, partitioned by flight and clustered by seat ID, with the price of the flight
+ * as a static column: serves seat listings and bookings.
+ * </ul>
+ *
+ * <p>Every statement is prepared once, so the driver knows the partition key of each request and sends it
+ * straight to a replica owning it (token-aware routing is the default policy of the driver for prepared
+ * statements). A booking is a lightweight transaction, {@code UPDATE ... IF status = 'Vacant'}, which
+ * Paxos serializes with every other booking of the seat, on any client; booking several seats is a
+ * conditional batch, applied only if every seat is still as it was read, which is possible because the
+ * seats of a flight share a partition.
+ *
+ * <p>A held seat keeps the expiry of its hold in {@code hold_expires}. As in {@link Seat#availableTo}, it can
+ * be booked by its holder or, once the hold has expired, by anyone: the booking is then conditional on the
+ * status, holder and expiry read just before, so that a seat held again in the meantime is not booked.
+ *
+ * <p>The settings are read from {@code cassandra.properties}; {@link #main} creates the schema, copies the
+ * airports from MongoDB and runs a booking race, against a single local node by default, e.g. the
+ * {@code cassandra} service of docker-compose.yml.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class CassandraBookingStore implements BookingStore {
+
+    /**
+     * Settings file read when the {@code cassandra.config} system property is not set.
+     */
+    public static final String DEFAULT_CONFIG_FILE = "cassandra.properties";
+
+    private final CqlSession session;
+    private final String keyspace;
+    private final ConsistencyLevel consistency;
+    private final ConsistencyLevel serialConsistency;
+    private final PreparedStatement selectFlights;
+    private final PreparedStatement selectRoute;
+    private final PreparedStatement selectSeats;
+    private final PreparedStatement selectPrice;
+    private final PreparedStatement selectSeatHolds;
+    private final PreparedStatement bookSeat;
+    private final PreparedStatement bookHeldSeat;
+    private LatencyMetrics metrics = new LatencyMetrics();
+
+    /**
+     * Constructs a store on the given session, whose keyspace already has the tables of {@link #createSchema}.
+     *
+     * @param session the session.
+     * @param config the settings: {@code keyspace}, {@code consistency} and {@code serialConsistency}.
+     */
+    public CassandraBookingStore(CqlSession session, Properties config) {
+        this.session = session;
+        this.consistency = DefaultConsistencyLevel.valueOf(config.getProperty("consistency", "LOCAL_QUORUM").trim());
+        this.serialConsistency = DefaultConsistencyLevel.valueOf(config.getProperty("serialConsistency", "LOCAL_SERIAL").trim());
+        this.keyspace = config.getProperty("keyspace", "airports").trim();
+
+        selectFlights = session.prepare("SELECT arrival, flight_id, arrival_name, arrival_country FROM " + keyspace
+                + ".flights_by_departure WHERE departure = ?");
+        selectRoute = session.prepare("SELECT flight_id FROM " + keyspace
+                + ".flights_by_departure WHERE departure = ? AND arrival = ? LIMIT 1");
+        selectSeats = session.prepare("SELECT seat_id, status, hold_expires FROM " + keyspace
+                + ".seats_by_flight WHERE flight_id = ?");
+        selectPrice = session.prepare("SELECT price FROM " + keyspace + ".seats_by_flight WHERE flight_id = ? LIMIT 1");
+        bookSeat = session.prepare("UPDATE " + keyspace + ".seats_by_flight SET status = ?, name = ?, surname = ?, "
+                + "document_info = ?, date_of_birth = ?, balance = ? WHERE flight_id = ? AND seat_id = ? IF status = ?");
+        selectSeatHolds = session.prepare("SELECT seat_id, status, document_info, hold_expires FROM " + keyspace
+                + ".seats_by_flight WHERE flight_id = ? AND seat_id IN ?");
+        bookHeldSeat = session.prepare("UPDATE " + keyspace + ".seats_by_flight SET status = ?, name = ?, surname = ?, "
+                + "document_info = ?, date_of_birth = ?, balance = ?, hold_expires = null WHERE flight_id = ? AND seat_id = ? "
+                + "IF status = ? AND document_info = ? AND hold_expires = ?");
+    }
+
+    /**
+     * Makes this store record its operation latencies into the given metrics, under the same names as
+     * {@link Transactions}.
+     *
+     * @param metrics the latency metrics to record into.
+     */
+    public void setLatencyMetrics(LatencyMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Opens a session on the contact points of the settings.
+     *
+     * @param config the settings: {@code contactPoints}, as comma-separated {@code host:port}, and
+     *               {@code localDatacenter}.
+     * @return the session.
+     */
+    public static CqlSession connect(Properties config) {
+        CqlSessionBuilder builder = CqlSession.builder()
+                .withLocalDatacenter(config.getProperty("localDatacenter", "datacenter1").trim());
+        for (String contactPoint : config.getProperty("contactPoints", "127.0.0.1:9042").split(",")) {
+            String[] hostAndPort = contactPoint.trim().split(":");
+            builder.addContactPoint(new InetSocketAddress(hostAndPort[0],
+                    hostAndPort.length > 1 ? Integer.parseInt(hostAndPort[1]) : 9042));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Creates the keyspace and the tables, if they do not exist yet, and adds {@code hold_expires} to a
+     * {@code seats_by_flight} table created before it.
+     *
+     * @param session the session.
+     * @param config the settings: {@code keyspace} and {@code replicationFactor}.
+     */
+    public static void createSchema(CqlSession session, Properties config) {
+        String keyspace = config.getProperty("keyspace", "airports").trim();
+        session.execute("CREATE KEYSPACE IF NOT EXISTS " + keyspace + " WITH replication = "
+                + "{'class': 'SimpleStrategy', 'replication_factor': "
+                + Integer.parseInt(config.getProperty("replicationFactor", "1").trim()) + "}");
+        session.execute("CREATE TABLE IF NOT EXISTS " + keyspace + ".flights_by_departure ("
+                + "departure text, arrival text, flight_id text, arrival_name text, arrival_country text, "
+                + "PRIMARY KEY ((departure), arrival, flight_id))");
+        session.execute("CREATE TABLE IF NOT EXISTS " + keyspace + ".seats_by_flight ("
+                + "flight_id text, price int STATIC, seat_id text, status text, name text, surname text, "
+                + "document_info text, date_of_birth text, balance double, hold_expires timestamp, "
+                + "PRIMARY KEY ((flight_id), seat_id))");
+        if (session.execute("SELECT column_name FROM system_schema.columns WHERE keyspace_name = ? "
+                + "AND table_name = 'seats_by_flight' AND column_name = 'hold_expires'", keyspace).one() == null) {
+            session.execute("ALTER TABLE " + keyspace + ".seats_by_flight ADD hold_expires timestamp");
+        }
+    }
+
+    /**
+     * Copies the airports of a MongoDB collection, in the shape written by {@code Modeling}, into the tables.
+     * The seats of a flight are written with one unlogged batch, since they share a partition. A held seat
+     * keeps the expiry of its hold, unless the hold has already expired, in which case it is copied as vacant.
+     *
+     * @param collection the airport collection.
+     * @return the number of flights copied.
+     */
+    public long importFrom(MongoCollection<Document> collection) {
+        Map<ObjectId, Document> destinations = new HashMap<>();
+        for (Document airport : collection.find().projection(Projections.include("IATA_code", "Name", "Country"))) {
+            destinations.put(airport.getObjectId("_id"), airport);
+        }
+
+        PreparedStatement insertFlight = session.prepare("INSERT INTO " + keyspace + ".flights_by_departure "
+                + "(departure, arrival, flight_id, arrival_name, arrival_country) VALUES (?, ?, ?, ?, ?)");
+        PreparedStatement insertSeat = session.prepare("INSERT INTO " + keyspace + ".seats_by_flight "
+                + "(flight_id, price, seat_id, status, name, surname, document_info, date_of_birth, balance, hold_expires) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+
+        long flights = 0;
+        long now = System.currentTimeMillis();
+        MongoCollection<Airport> airports = collection.withDocumentClass(Airport.class)
+                .withCodecRegistry(AirportCodecProvider.REGISTRY);
+        for (Airport airport : airports.find()) {
+            for (Flight flight : airport.getFlights()) {
+                Document destination = destinations.get(flight.getDestination());
+                if (airport.getIataCode() == null || destination == null || destination.getString("IATA_code") == null) {
+                    continue;
+                }
+                session.execute(insertFlight.bind(airport.getIataCode(), destination.getString("IATA_code"),
+                        flight.getId(), destination.getString("Name"), destination.getString("Country"))
+                        .setConsistencyLevel(consistency));
+
+                BatchStatementBuilder seats = BatchStatement.builder(BatchType.UNLOGGED);
+                for (Seat seat : flight.getSeats()) {
+                    if (seat.getStatus() == SeatStatus.HELD && seat.getHoldExpires() <= now) {
+                        seats.addStatement(insertSeat.bind(flight.getId(), flight.getPricePerPerson(), seat.getId(),
+                                SeatStatus.VACANT.label(), "", "", "", "", 0.0, null));
+                        continue;
+                    }
+                    seats.addStatement(insertSeat.bind(flight.getId(), flight.getPricePerPerson(), seat.getId(),
+                            seat.getStatus() == null ? null : seat.getStatus().label(), seat.getName(), seat.getSurname(),
+                            seat.getDocumentInfo(), seat.getDateOfBirth(), seat.getBalance(),
+                            seat.getStatus() == SeatStatus.HELD ? Instant.ofEpochMilli(seat.getHoldExpires()) : null));
+                }
+                if (seats.getStatementsCount() > 0) {
+                    session.execute(seats.build().setConsistencyLevel(consistency));
+                }
+                flights++;
+            }
+        }
+        return flights;
+    }
+
+    @Override
+    public Map<String, Map<String, String>> getFlightsFromAirport(String airportCode) {
+        long start = System.nanoTime();
+        Map<String, Map<String, String>> flightsMap = new HashMap<>();
+        for (Row row : session.execute(selectFlights.bind(airportCode).setConsistencyLevel(consistency))) {
+            Map<String, String> flightDetails = new HashMap<>();
+            flightDetails.put("ID", row.getString("flight_id"));
+            flightDetails.put("Name", row.getString("arrival_name"));
+            flightDetails.put("IATA_code", row.getString("arrival"));
+            flightDetails.put("Country", row.getString("arrival_country"));
+            flightsMap.put(row.getString("arrival"), flightDetails);
+        }
+        metrics.recordSince(LatencyMetrics.SEARCH, start);
+        return flightsMap;
+    }
+
+    @Override
+    public List<String> getAvailableSeats(String departureAirportCode, String arrivalAirportCode) {
+        long start = System.nanoTime();
+        List<String> availableSeatsList = new ArrayList<>();
+        String flightID = findFlight(departureAirportCode, arrivalAirportCode);
+        if (flightID != null) {
+            Instant now = Instant.now();
+            for (Row seat : session.execute(selectSeats.bind(flightID).setConsistencyLevel(consistency))) {
+                String status = seat.getString("status");
+                Instant holdExpires = seat.getInstant("hold_expires");
+                if (SeatStatus.VACANT.label().equals(status)
+                        || SeatStatus.HELD.label().equals(status) && holdExpires != null && holdExpires.isBefore(now)) {
+                    availableSeatsList.add(seat.getString("seat_id"));
+                }
+            }
+        }
+        metrics.recordSince(LatencyMetrics.SEAT_LISTING, start);
+        return availableSeatsList;
+    }
+
+    /**
+     * Finds the flight whose seats {@link #getAvailableSeats} lists for a route.
+     *
+     * @param departureAirportCode The IATA code of the departure airport.
+     * @param arrivalAirportCode The IATA code of the arrival airport.
+     * @return The ID of the flight, or null if there is none.
+     */
+    String findFlight(String departureAirportCode, String arrivalAirportCode) {
+        Row route = session.execute(selectRoute.bind(departureAirportCode, arrivalAirportCode)
+                .setConsistencyLevel(consistency)).one();
+        return route == null ? null : route.getString("flight_id");
+    }
+
+    @Override
+    public boolean bookFlight(String flightID, String seatID, PeopleGenerator.Person person) {
+        return bookSeats(flightID, List.of(seatID), List.of(person));
+    }
+
+    @Override
+    public boolean bookSeats(String flightID, List<String> seatIDs, List<PeopleGenerator.Person> people) {
+        if (seatIDs.size() != people.size()) {
+            throw new IllegalArgumentException("Expected one person per seat, got " + seatIDs.size() + " seats and " + people.size() + " people");
+        }
+        if (seatIDs.isEmpty() || new HashSet<>(seatIDs).size() != seatIDs.size()) {
+            return false;
+        }
+
+        long start = System.nanoTime();
+        String outcome = LatencyMetrics.BOOKING_REJECTED;
+        double seatPrice = -1;
+        try {
+            Row flight = session.execute(selectPrice.bind(flightID).setConsistencyLevel(consistency)).one();
+            if (flight == null || flight.isNull("price")) {
+                return false;
+            }
+            seatPrice = flight.getInt("price");
+            for (PeopleGenerator.Person person : people) {
+                if (person.getBalance() < seatPrice) {
+                    return false;
+                }
+            }
+
+            Map<String, Row> seats = new HashMap<>();
+            for (Row seat : session.execute(selectSeatHolds.bind(flightID, seatIDs).setConsistencyLevel(consistency))) {
+                seats.put(seat.getString("seat_id"), seat);
+            }
+            metrics.recordSince(LatencyMetrics.BOOKING_FIND, start);
+
+            Instant now = Instant.now();
+            List<BoundStatement> updates = new ArrayList<>(seatIDs.size());
+            for (int i = 0; i < seatIDs.size(); i++) {
+                PeopleGenerator.Person person = people.get(i);
+                Row seat = seats.get(seatIDs.get(i));
+                String status = seat == null ? null : seat.getString("status");
+                if (SeatStatus.VACANT.label().equals(status)) {
+                    updates.add(bookSeat.bind(SeatStatus.BOOKED.label(), person.getName(), person.getSurname(),
+                            person.getDocumentInfo(), person.getDateOfBirth(), person.getBalance() - seatPrice,
+                            flightID, seatIDs.get(i), SeatStatus.VACANT.label()));
+                } else if (SeatStatus.HELD.label().equals(status) && isAvailableTo(seat, person, now)) {
+                    // Conditional on the hold as read, so that a seat held again in the meantime is not booked
+                    updates.add(bookHeldSeat.bind(SeatStatus.BOOKED.label(), person.getName(), person.getSurname(),
+                            person.getDocumentInfo(), person.getDateOfBirth(), person.getBalance() - seatPrice,
+                            flightID, seatIDs.get(i), SeatStatus.HELD.label(), seat.getString("document_info"),
+                            seat.getInstant("hold_expires")));
+                } else {
+                    outcome = LatencyMetrics.BOOKING_CONFLICT;
+                    return false;
+                }
+            }
+
+            // A single seat is a plain lightweight transaction; several are a conditional batch on one partition
+            long stageStart = System.nanoTime();
+            ResultSet result = updates.size() == 1
+                    ? session.execute(updates.get(0).setConsistencyLevel(consistency).setSerialConsistencyLevel(serialConsistency))
+                    : session.execute(BatchStatement.newInstance(BatchType.LOGGED, updates.toArray(new BoundStatement[0]))
+                            .setConsistencyLevel(consistency).setSerialConsistencyLevel(serialConsistency));
+            metrics.recordSince(LatencyMetrics.BOOKING_UPDATE, stageStart);
+
+            if (!result.wasApplied()) {
+                outcome = LatencyMetrics.BOOKING_CONFLICT;
+                return false;
+            }
+            for (PeopleGenerator.Person person : people) {
+                // Store old balance and difference, then deduct the seat price
+                person.setOldBalance(person.getBalance());
+                person.setDifference(seatPrice);
+                person.setBalance(person.getBalance() - seatPrice);
+            }
+            outcome = LatencyMetrics.BOOKING_SUCCESS;
+            return true;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            metrics.record(outcome, elapsed);
+            for (String seatID : seatIDs) {
+                BookingAuditLog.record(flightID, seatID, outcome, seatPrice, elapsed);
+            }
+        }
+    }
+
+    /**
+     * Tells whether a held seat can be booked by a person, as {@link Seat#availableTo} does in MongoDB.
+     *
+     * @param seat The row of the held seat, with its {@code document_info} and {@code hold_expires}.
+     * @param person The person booking the seat.
+     * @param now The time of the booking.
+     * @return true if the person holds the seat or its hold has expired.
+     */
+    private static boolean isAvailableTo(Row seat, PeopleGenerator.Person person, Instant now) {
+        Instant holdExpires = seat.getInstant("hold_expires");
+        return person.getDocumentInfo().equals(seat.getString("document_info"))
+                || holdExpires != null && holdExpires.isBefore(now);
+    }
+
+    /**
+     * Closes the session.
+     */
+    @Override
+    public void close() {
+        session.close();
+    }
+
+    /**
+     * Creates the schema, copies the airports from MongoDB unless {@code --skip-import} is given, then lists
+     * the seats of a route and lets several threads race for the same seat, of which exactly one must win.
+     *
+     * @param args optional flags and arguments: {@code --skip-import}, then the departure and arrival IATA codes.
+     */
+    public static void main(String[] args) {
+        List<String> arguments = new ArrayList<>(List.of(args));
+        boolean skipImport = arguments.remove("--skip-import");
+        String departureAirportCode = arguments.size() > 0 ? arguments.get(0) : "MXP";
+        String arrivalAirportCode = arguments.size() > 1 ? arguments.get(1) : "PMV";
+
+        Properties config = new Properties();
+        try (Reader reader = new FileReader(System.getProperty("cassandra.config", DEFAULT_CONFIG_FILE))) {
+            config.load(reader);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        CqlSession session = connect(config);
+        createSchema(session, config);
+        try (CassandraBookingStore store = new CassandraBookingStore(session, config)) {
+            if (!skipImport) {
+                try (ConnectionRegistry registry = ConnectionRegistry.load()) {
+                    long start = System.nanoTime();
+                    long flights = store.importFrom(registry.getClient(ConnectionRegistry.SEARCH)
+                            .getDatabase("Airports").getCollection("airportCollection"));
+                    System.out.printf("Copied %d flights in %d ms%n", flights, (System.nanoTime() - start) / 1_000_000);
+                }
+            }
+
+            System.out.println("Flights from " + departureAirportCode + ": "
+                    + store.getFlightsFromAirport(departureAirportCode).keySet());
+            List<String> seats = store.getAvailableSeats(departureAirportCode, arrivalAirportCode);
+            System.out.println("Available seats " + departureAirportCode + " -> " + arrivalAirportCode + ": " + seats.size());
+            if (seats.isEmpty()) {
+                return;
+            }
+
+            String flightID = store.findFlight(departureAirportCode, arrivalAirportCode);
+            String seatID = seats.get(0);
+            List<PeopleGenerator.Person> racers = new PeopleGenerator().generatePeople(8);
+            long successfulBookings = racers.parallelStream()
+                    .filter(person -> store.bookFlight(flightID, seatID, person))
+                    .count();
+            System.out.println("Racing for seat " + seatID + ": " + successfulBookings + " successful booking(s), expected 1");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
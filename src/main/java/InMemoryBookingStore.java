@@ -0,0 +1,212 @@
+import org.example.BookingAuditLog;
+import org.example.BookingJournal;
+import org.example.JournalFlusher;
+import org.example.LatencyMetrics;
+import org.example.SeatInventory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The InMemoryBookingStore class decides bookings in memory, with a {@link SeatInventory}, in front of
+ * another {@link BookingStore} that keeps the durable record. A booking that loses the race for a seat is
+ * refused by a failed compare-and-set, without a lock and without reaching the database; a booking that
+ * wins it is then written to the database, and the seat is given back if that write fails.
+ *
+ * <p>Seat listings are answered from the inventory, which already includes the bookings still being
+ * written; flight searches go to the backing store. The inventory only knows about the bookings made
+ * through it, so seats booked by other processes are refused by the conditional update of the backing
+ * store, and stay taken in memory from then on.
+ *
+ * <p>With a {@link JournalFlusher}, a booking that wins its seats is appended to the {@link BookingJournal}
+ * instead, and accepted as soon as the journal is on disk; the flusher writes it to the database later,
+ * together with the bookings around it. The bookings the journal holds from a previous run are taken in
+ * the inventory before any new booking is decided.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class InMemoryBookingStore implements BookingStore {
+
+    /**
+     * Longest time a booking waits for room in a full journal before it is refused.
+     */
+    private static final long JOURNAL_TIMEOUT_MILLIS = 500;
+
+    private final SeatInventory inventory;
+    private final BookingStore durable;
+    private final JournalFlusher writeBehind;
+
+    /**
+     * Constructs an InMemoryBookingStore that writes each booking to the backing store before accepting it.
+     *
+     * @param inventory The seat inventory, loaded from the same collection the backing store writes to.
+     * @param durable The store the bookings are written to.
+     */
+    public InMemoryBookingStore(SeatInventory inventory, BookingStore durable) {
+        this(inventory, durable, null);
+    }
+
+    /**
+     * Constructs an InMemoryBookingStore that accepts each booking once it is in the journal of a flusher.
+     *
+     * @param inventory The seat inventory, loaded from the collection the flusher writes to.
+     * @param durable The store searches are sent to.
+     * @param writeBehind The flusher the bookings are journaled with, or null to write them to {@code durable}.
+     */
+    public InMemoryBookingStore(SeatInventory inventory, BookingStore durable, JournalFlusher writeBehind) {
+        this.inventory = inventory;
+        this.durable = durable;
+        this.writeBehind = writeBehind;
+        if (writeBehind != null) {
+            for (BookingJournal.Entry entry : writeBehind.getJournal().unreleased()) {
+                inventory.tryBook(entry.flightID(), entry.seatID());
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Map<String, String>> getFlightsFromAirport(String airportCode) {
+        return durable.getFlightsFromAirport(airportCode);
+    }
+
+    /**
+     * Lists the vacant seats from the inventory, or from the backing store for a route it does not know.
+     */
+    @Override
+    public List<String> getAvailableSeats(String departureAirportCode, String arrivalAirportCode) {
+        String flightID = inventory.flightFor(departureAirportCode, arrivalAirportCode);
+        return flightID == null
+                ? durable.getAvailableSeats(departureAirportCode, arrivalAirportCode)
+                : inventory.vacantSeatIds(flightID);
+    }
+
+    /**
+     * Takes the seat in the inventory, then writes the booking to the journal or to the backing store.
+     */
+    @Override
+    public boolean bookFlight(String flightID, String seatID, PeopleGenerator.Person person) {
+        int price = inventory.priceOf(flightID);
+        if (price < 0 || person.getBalance() < price) {
+            return false;
+        }
+        if (inventory.tryBook(flightID, seatID) != SeatInventory.Result.BOOKED) {
+            return false;
+        }
+        if (writeBehind != null) {
+            return journal(flightID, List.of(seatID), List.of(person), price);
+        }
+        try {
+            return durable.bookFlight(flightID, seatID, person);
+        } catch (RuntimeException e) {
+            inventory.release(flightID, seatID);
+            throw e;
+        }
+    }
+
+    /**
+     * Takes every seat in the inventory, then writes the booking to the journal or to the backing store.
+     */
+    @Override
+    public boolean bookSeats(String flightID, List<String> seatIDs, List<PeopleGenerator.Person> people) {
+        if (seatIDs.size() != people.size()) {
+            throw new IllegalArgumentException("Expected one person per seat, got " + seatIDs.size() + " seats and " + people.size() + " people");
+        }
+        if (seatIDs.isEmpty() || new HashSet<>(seatIDs).size() != seatIDs.size()) {
+            return false;
+        }
+        int price = inventory.priceOf(flightID);
+        if (price < 0) {
+            return false;
+        }
+        for (PeopleGenerator.Person person : people) {
+            if (person.getBalance() < price) {
+                return false;
+            }
+        }
+        if (inventory.tryBookAll(flightID, seatIDs) != SeatInventory.Result.BOOKED) {
+            return false;
+        }
+        if (writeBehind != null) {
+            return journal(flightID, seatIDs, people, price);
+        }
+        boolean booked = false;
+        try {
+            booked = durable.bookSeats(flightID, seatIDs, people);
+            return booked;
+        } finally {
+            if (!booked) {
+                // The group may have been refused for one seat booked elsewhere: the others are vacant again,
+                // and that one is taken again by the next booking the backing store refuses
+                for (String seatID : seatIDs) {
+                    inventory.release(flightID, seatID);
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends seats already taken in the inventory to the journal, and charges the people once it is on disk.
+     * The seats are given back if the journal cannot take them.
+     *
+     * @return True if the booking was journaled, false if the journal stayed full.
+     */
+    private boolean journal(String flightID, List<String> seatIDs, List<PeopleGenerator.Person> people, int price) {
+        long start = System.nanoTime();
+        List<BookingJournal.Entry> entries = new ArrayList<>(seatIDs.size());
+        for (int i = 0; i < seatIDs.size(); i++) {
+            PeopleGenerator.Person person = people.get(i);
+            entries.add(new BookingJournal.Entry(flightID, seatIDs.get(i), person.getName(), person.getSurname(),
+                    person.getDocumentInfo(), person.getDateOfBirth(), person.getBalance() - price));
+        }
+        boolean journaled = false;
+        try {
+            writeBehind.getJournal().append(entries, JOURNAL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            journaled = true;
+        } catch (IllegalStateException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            if (!journaled) {
+                for (String seatID : seatIDs) {
+                    inventory.release(flightID, seatID);
+                }
+            }
+            String outcome = journaled ? LatencyMetrics.BOOKING_SUCCESS : LatencyMetrics.BOOKING_REJECTED;
+            long elapsed = System.nanoTime() - start;
+            for (String seatID : seatIDs) {
+                BookingAuditLog.record(flightID, seatID, outcome, price, elapsed);
+            }
+        }
+        for (PeopleGenerator.Person person : people) {
+            person.setOldBalance(person.getBalance());
+            person.setDifference(price);
+            person.setBalance(person.getBalance() - price);
+        }
+        return true;
+    }
+
+    /**
+     * Closes the flusher, once it has written what it could of the journal, and the backing store.
+     */
+    @Override
+    public void close() {
+        try {
+            if (writeBehind != null) {
+                writeBehind.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            durable.close();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.Projections;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.example.ConnectionRegistry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The InventoryMigration class copies the flights nested in {@code airportCollection} into the
+ * {@value #COLLECTION_NAME} collection, which holds one document per flight keyed by the flight ID.
+ * Each inventory document carries its seats together with the departure and destination airport
+ * metadata needed by searches, so that {@link InventoryTransactions} never reads the airport documents.
+ *
+ * <p>Bookings then contend on a single flight document instead of on the whole departure airport, and
+ * no document grows with the number of flights of an airport. On a sharded cluster the collection is
+ * sharded on the hashed flight ID, so the flights of a hub are spread over every shard.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class InventoryMigration {
+
+    /**
+     * Name of the flight inventory collection.
+     */
+    public static final String COLLECTION_NAME = "flightInventory";
+
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Copies every flight of the airport collection into the inventory collection and creates the
+     * indexes used by {@link InventoryTransactions}. Existing inventory documents are not modified, so that
+     * the migration can be run again to resume an interrupted one.
+     *
+     * @param airports The airport collection, as created by {@link Modeling}.
+     * @param inventory The flight inventory collection.
+     * @return The number of flights copied, without the ones already in the inventory.
+     */
+    public static long migrate(MongoCollection<Document> airports, MongoCollection<Document> inventory) {
+        // First pass: the metadata of every airport, to denormalize it into the flights
+        Map<ObjectId, Document> airportMetadata = new HashMap<>();
+        for (Document airport : airports.find().projection(Projections.include("Name", "IATA_code", "Country"))) {
+            airportMetadata.put(airport.getObjectId("_id"), airport);
+        }
+
+        // Second pass: the flights, one departure airport at a time
+        InsertManyOptions options = new InsertManyOptions().ordered(false);
+        List<Document> batch = new ArrayList<>(BATCH_SIZE);
+        long migrated = 0;
+        for (Document departure : airports.find().projection(Projections.include("Flights"))) {
+            Document departureMetadata = airportMetadata.get(departure.getObjectId("_id"));
+            for (Document flight : departure.getList("Flights", Document.class, Collections.emptyList())) {
+                Document destinationMetadata = airportMetadata.get(flight.getObjectId("Destination"));
+                if (destinationMetadata == null) {
+                    continue; // Dangling reference, the flight cannot be searched anyway
+                }
+                batch.add(toInventoryDocument(flight, departureMetadata, destinationMetadata));
+                if (batch.size() == BATCH_SIZE) {
+                    migrated += insertNew(inventory, batch, options);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            migrated += insertNew(inventory, batch, options);
+        }
+
+        createIndexes(inventory);
+        return migrated;
+    }
+
+    /**
+     * Inserts a batch of inventory documents, skipping the ones whose flight is already in the inventory.
+     * The insert is unordered, so the rest of the batch is inserted even when some documents exist.
+     *
+     * @param inventory The flight inventory collection.
+     * @param batch The inventory documents.
+     * @param options The options of the insert, which must be unordered.
+     * @return The number of documents inserted.
+     * @throws MongoBulkWriteException if a document could not be inserted for another reason.
+     */
+    private static int insertNew(MongoCollection<Document> inventory, List<Document> batch, InsertManyOptions options) {
+        try {
+            inventory.insertMany(batch, options);
+            return batch.size();
+        } catch (MongoBulkWriteException e) {
+            for (BulkWriteError error : e.getWriteErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    throw e;
+                }
+            }
+            if (e.getWriteConcernError() != null) {
+                throw e;
+            }
+            return batch.size() - e.getWriteErrors().size();
+        }
+    }
+
+    /**
+     * Creates the index used to look up the flights of a route.
+     *
+     * @param inventory The flight inventory collection.
+     */
+    static void createIndexes(MongoCollection<Document> inventory) {
+        inventory.createIndex(Indexes.ascending("Departure.IATA_code", "Destination.IATA_code"),
+                new IndexOptions().name("route"));
+    }
+
+    /**
+     * Builds the inventory document of a flight.
+     *
+     * @param flight The flight, as nested in its departure airport.
+     * @param departure The departure airport, with at least {@code _id}, Name, IATA_code and Country.
+     * @param destination The destination airport, with at least {@code _id}, Name, IATA_code and Country.
+     * @return The inventory document, keyed by the flight ID.
+     */
+    static Document toInventoryDocument(Document flight, Document departure, Document destination) {
+        return new Document("_id", flight.getString("ID"))
+                .append("Departure", airportReference(departure))
+                .append("Destination", airportReference(destination))
+                .append("Number_of_Seats", flight.get("Number_of_Seats"))
+                .append("Day", flight.get("Day"))
+                .append("Hour", flight.get("Hour"))
+                .append("Operator", flight.get("Operator"))
+                .append("Duration", flight.get("Duration"))
+                .append("Price_per_Person", flight.get("Price_per_Person"))
+                .append("Seats", flight.get("Seats"));
+    }
+
+    /**
+     * Builds the embedded airport reference of an inventory document.
+     *
+     * @param airport The airport document.
+     * @return The reference holding the airport ID, name, IATA code and country.
+     */
+    private static Document airportReference(Document airport) {
+        return new Document("_id", airport.getObjectId("_id"))
+                .append("Name", airport.getString("Name"))
+                .append("IATA_code", airport.getString("IATA_code"))
+                .append("Country", airport.getString("Country"));
+    }
+
+    /**
+     * Shards the inventory collection on the hashed flight ID. Must run against a mongos.
+     *
+     * @param mongoClient A client connected to the mongos router.
+     * @param dbName The name of the database holding the inventory collection.
+     */
+    public static void shard(MongoClient mongoClient, String dbName) {
+        MongoDatabase admin = mongoClient.getDatabase("admin");
+        admin.runCommand(new Document("enableSharding", dbName));
+        admin.runCommand(new Document("shardCollection", dbName + "." + COLLECTION_NAME)
+                .append("key", new Document("_id", "hashed")));
+    }
+
+    /**
+     * Migrates the airport collection of the Airports database into the flight inventory collection.
+     *
+     * @param args Optional arguments: the name of the client in connections.properties (default
+     *             {@value ConnectionRegistry#IMPORT}) and {@code --shard} to shard the collection first.
+     */
+    public static void main(String[] args) {
+        String clientName = args.length > 0 && !args[0].startsWith("--") ? args[0] : ConnectionRegistry.IMPORT;
+        boolean shard = List.of(args).contains("--shard");
+
+        try (ConnectionRegistry registry = ConnectionRegistry.load()) {
+            MongoClient mongoClient = registry.getClient(clientName);
+            MongoDatabase database = mongoClient.getDatabase("Airports");
+            if (shard) {
+                shard(mongoClient, database.getName());
+            }
+
+            long migrated = migrate(database.getCollection("airportCollection"), database.getCollection(COLLECTION_NAME));
+            System.out.println("Migrated " + migrated + " flights into " + COLLECTION_NAME);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
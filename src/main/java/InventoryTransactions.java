@@ -0,0 +1,319 @@
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.example.BookingAuditLog;
+import org.example.LatencyMetrics;
+import org.example.OperationProfiles;
+import org.example.Seat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The InventoryTransactions class offers the operations of {@link Transactions} on the flight inventory
+ * model created by {@link InventoryMigration}, where every flight is its own document keyed by flight ID.
+ * A booking only touches the document of its flight, so bookings on different flights of the same hub
+ * never contend on the same document, and the conditional update alone prevents double bookings: no
+ * process-wide lock is taken.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+class InventoryTransactions {
+
+    private final MongoClient searchClient;
+    private final MongoClient bookingClient;
+    private final MongoCollection<Document> searchCollection;
+    private final MongoCollection<Document> bookingCollection;
+    private LatencyMetrics metrics = new LatencyMetrics();
+    private OperationProfiles profiles = new OperationProfiles();
+
+    /**
+     * Constructs an InventoryTransactions object on the flight inventory collection of the given database.
+     *
+     * @param mongoClient The MongoDB client instance.
+     * @param dbName The name of the database.
+     */
+    public InventoryTransactions(MongoClient mongoClient, String dbName) {
+        this(mongoClient, mongoClient, dbName);
+    }
+
+    /**
+     * Constructs an InventoryTransactions object that runs searches and bookings on separate clients.
+     *
+     * @param searchClient The MongoDB client used for flight searches and seat listings.
+     * @param bookingClient The MongoDB client used for bookings.
+     * @param dbName The name of the database.
+     */
+    public InventoryTransactions(MongoClient searchClient, MongoClient bookingClient, String dbName) {
+        this.searchClient = searchClient;
+        this.bookingClient = bookingClient;
+        this.searchCollection = searchClient.getDatabase(dbName).getCollection(InventoryMigration.COLLECTION_NAME);
+        this.bookingCollection = bookingClient.getDatabase(dbName).getCollection(InventoryMigration.COLLECTION_NAME);
+    }
+
+    /**
+     * Makes this instance record its operation latencies into the given metrics.
+     *
+     * @param metrics The latency metrics to record into.
+     */
+    public void setLatencyMetrics(LatencyMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Makes this instance run every operation with the read preference, read concern and write concern of its profile.
+     *
+     * @param profiles The operation profiles.
+     */
+    public void setOperationProfiles(OperationProfiles profiles) {
+        this.profiles = profiles;
+    }
+
+    /**
+     * Retrieves flights departing from the specified airport with a single indexed query.
+     *
+     * @param airportCode The IATA code of the departure airport.
+     * @return A map containing flight details keyed by destination airport IATA code.
+     */
+    public Map<String, Map<String, String>> getFlightsFromAirport(String airportCode) {
+        long start = System.nanoTime();
+        Map<String, Map<String, String>> flightsMap = new HashMap<>();
+
+        for (Document flight : profiles.apply(OperationProfiles.SEARCH, searchCollection).find(Filters.eq("Departure.IATA_code", airportCode))
+                .projection(Projections.include("Destination.Name", "Destination.IATA_code", "Destination.Country"))) {
+            Document destination = flight.get("Destination", Document.class);
+            Map<String, String> flightDetails = new HashMap<>();
+            flightDetails.put("ID", flight.getString("_id"));
+            flightDetails.put("Name", destination.getString("Name"));
+            flightDetails.put("IATA_code", destination.getString("IATA_code"));
+            flightDetails.put("Country", destination.getString("Country"));
+            flightsMap.put(destination.getString("IATA_code"), flightDetails);
+        }
+
+        metrics.recordSince(LatencyMetrics.SEARCH, start);
+        return flightsMap;
+    }
+
+    /**
+     * Retrieves the list of available seats for a flight from a departure airport to an arrival airport.
+     * The seats are filtered on the server, so only the IDs of the vacant seats are transferred. A held seat
+     * is only listed once its hold has expired.
+     *
+     * @param departureAirportCode The IATA code of the departure airport.
+     * @param arrivalAirportCode The IATA code of the arrival airport.
+     * @return A list of seat IDs that are available.
+     */
+    public List<String> getAvailableSeats(String departureAirportCode, String arrivalAirportCode) {
+        long start = System.nanoTime();
+        List<String> availableSeatsList = new ArrayList<>();
+
+        Document vacantSeatIds = new Document("$map", new Document("input",
+                new Document("$filter", new Document("input", "$Seats")
+                        .append("as", "seat")
+                        .append("cond", new Document("$or", Arrays.asList(
+                                new Document("$eq", Arrays.asList("$$seat.Status", "Vacant")),
+                                new Document("$and", Arrays.asList(
+                                        new Document("$eq", Arrays.asList("$$seat.Status", "Held")),
+                                        new Document("$lt", Arrays.asList("$$seat.Hold_Expires", "$$NOW")))))))))
+                .append("as", "seat")
+                .append("in", "$$seat.ID"));
+
+        Document result = profiles.apply(OperationProfiles.SEAT_LISTING, searchCollection).aggregate(Arrays.asList(
+                Aggregates.match(Filters.and(
+                        Filters.eq("Departure.IATA_code", departureAirportCode),
+                        Filters.eq("Destination.IATA_code", arrivalAirportCode))),
+                Aggregates.limit(1),
+                Aggregates.project(new Document("_id", 0).append("Seats", vacantSeatIds))
+        )).first();
+
+        if (result != null) {
+            availableSeatsList.addAll(result.getList("Seats", String.class, Collections.emptyList()));
+        }
+
+        metrics.recordSince(LatencyMetrics.SEAT_LISTING, start);
+        return availableSeatsList;
+    }
+
+    /**
+     * Attempts to book a seat for a given person with a conditional update of the flight document that
+     * only matches while the seat is available to the person, see {@link Seat#availableTo}: vacant, held by
+     * the person, or held with an expired hold.
+     *
+     * @param flightID The ID of the flight to book.
+     * @param seatID The ID of the seat to book.
+     * @param person The person attempting to book the flight.
+     * @return True if the booking is successful, false otherwise.
+     */
+    public boolean bookFlight(String flightID, String seatID, PeopleGenerator.Person person) {
+        long start = System.nanoTime();
+        String outcome = LatencyMetrics.BOOKING_REJECTED;
+        double seatPrice = -1;
+        try {
+            seatPrice = getPrice(flightID);
+            long stageStart = metrics.recordSince(LatencyMetrics.BOOKING_FIND, start);
+            if (seatPrice < 0 || person.getBalance() < seatPrice) {
+                return false;
+            }
+
+            Date now = new Date();
+            UpdateResult result = profiles.apply(OperationProfiles.BOOKING, bookingCollection).updateOne(
+                    Filters.and(
+                            Filters.eq("_id", flightID),
+                            Filters.elemMatch("Seats", Filters.and(Filters.eq("ID", seatID),
+                                    Seat.availableTo("", person.getDocumentInfo(), now)))
+                    ),
+                    Updates.combine(
+                            Updates.set("Seats.$[seat].Status", "Booked"),
+                            Updates.unset("Seats.$[seat].Hold_Expires"),
+                            Updates.set("Seats.$[seat].Name", person.getName()),
+                            Updates.set("Seats.$[seat].Surname", person.getSurname()),
+                            Updates.set("Seats.$[seat].Document_Info", person.getDocumentInfo()),
+                            Updates.set("Seats.$[seat].Date_of_Birth", person.getDateOfBirth()),
+                            Updates.set("Seats.$[seat].Balance", person.getBalance() - seatPrice)
+                    ),
+                    new UpdateOptions().arrayFilters(List.of(
+                            Filters.and(Filters.eq("seat.ID", seatID), Seat.availableTo("seat.", person.getDocumentInfo(), now))
+                    ))
+            );
+            metrics.recordSince(LatencyMetrics.BOOKING_UPDATE, stageStart);
+
+            if (result.getModifiedCount() != 1) {
+                outcome = LatencyMetrics.BOOKING_CONFLICT;
+                return false;
+            }
+
+            person.setOldBalance(person.getBalance());
+            person.setDifference(seatPrice);
+            person.setBalance(person.getBalance() - seatPrice);
+            outcome = LatencyMetrics.BOOKING_SUCCESS;
+            return true;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            metrics.record(outcome, elapsed);
+            BookingAuditLog.record(flightID, seatID, outcome, seatPrice, elapsed);
+        }
+    }
+
+    /**
+     * Books several seats of the same flight, one per person, as a single unit: either every seat is booked
+     * or none is. Every seat must be available to its person, as in {@link #bookFlight}.
+     *
+     * @param flightID The ID of the flight to book.
+     * @param seatIDs The IDs of the seats to book, all distinct.
+     * @param people The people to book, where the i-th person gets the i-th seat.
+     * @return True if every seat was booked, false if none was.
+     */
+    public boolean bookSeats(String flightID, List<String> seatIDs, List<PeopleGenerator.Person> people) {
+        if (seatIDs.size() != people.size()) {
+            throw new IllegalArgumentException("Expected one person per seat, got " + seatIDs.size() + " seats and " + people.size() + " people");
+        }
+        if (seatIDs.isEmpty() || new HashSet<>(seatIDs).size() != seatIDs.size()) {
+            return false;
+        }
+
+        long start = System.nanoTime();
+        String outcome = LatencyMetrics.BOOKING_REJECTED;
+        double seatPrice = -1;
+        try {
+            seatPrice = getPrice(flightID);
+            long stageStart = metrics.recordSince(LatencyMetrics.BOOKING_FIND, start);
+            if (seatPrice < 0) {
+                return false;
+            }
+            for (PeopleGenerator.Person person : people) {
+                if (person.getBalance() < seatPrice) {
+                    return false;
+                }
+            }
+
+            Date now = new Date();
+            List<Bson> conditions = new ArrayList<>();
+            List<Bson> updates = new ArrayList<>();
+            List<Bson> arrayFilters = new ArrayList<>();
+            conditions.add(Filters.eq("_id", flightID));
+            for (int i = 0; i < seatIDs.size(); i++) {
+                String seatID = seatIDs.get(i);
+                PeopleGenerator.Person person = people.get(i);
+                String seatPath = "Seats.$[seat" + i + "].";
+
+                conditions.add(Filters.elemMatch("Seats", Filters.and(Filters.eq("ID", seatID),
+                        Seat.availableTo("", person.getDocumentInfo(), now))));
+                updates.add(Updates.set(seatPath + "Status", "Booked"));
+                updates.add(Updates.unset(seatPath + "Hold_Expires"));
+                updates.add(Updates.set(seatPath + "Name", person.getName()));
+                updates.add(Updates.set(seatPath + "Surname", person.getSurname()));
+                updates.add(Updates.set(seatPath + "Document_Info", person.getDocumentInfo()));
+                updates.add(Updates.set(seatPath + "Date_of_Birth", person.getDateOfBirth()));
+                updates.add(Updates.set(seatPath + "Balance", person.getBalance() - seatPrice));
+                arrayFilters.add(Filters.and(Filters.eq("seat" + i + ".ID", seatID),
+                        Seat.availableTo("seat" + i + ".", person.getDocumentInfo(), now)));
+            }
+
+            UpdateResult result = profiles.apply(OperationProfiles.BOOKING, bookingCollection).updateOne(
+                    Filters.and(conditions),
+                    Updates.combine(updates),
+                    new UpdateOptions().arrayFilters(arrayFilters)
+            );
+            metrics.recordSince(LatencyMetrics.BOOKING_UPDATE, stageStart);
+            if (result.getModifiedCount() != 1) {
+                outcome = LatencyMetrics.BOOKING_CONFLICT;
+                return false;
+            }
+
+            for (PeopleGenerator.Person person : people) {
+                person.setOldBalance(person.getBalance());
+                person.setDifference(seatPrice);
+                person.setBalance(person.getBalance() - seatPrice);
+            }
+            outcome = LatencyMetrics.BOOKING_SUCCESS;
+            return true;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            metrics.record(outcome, elapsed);
+            for (String seatID : seatIDs) {
+                BookingAuditLog.record(flightID, seatID, outcome, seatPrice, elapsed);
+            }
+        }
+    }
+
+    /**
+     * Reads the price per person of a flight.
+     *
+     * @param flightID The ID of the flight.
+     * @return The price, or -1 if the flight does not exist or has no valid price.
+     */
+    private double getPrice(String flightID) {
+        Document flight = profiles.apply(OperationProfiles.BOOKING, bookingCollection).find(Filters.eq("_id", flightID))
+                .projection(Projections.include("Price_per_Person"))
+                .first();
+        if (flight == null || !(flight.get("Price_per_Person") instanceof Number)) {
+            return -1;
+        }
+        return ((Number) flight.get("Price_per_Person")).doubleValue();
+    }
+
+    /**
+     * Closes the MongoDB client connections.
+     */
+    public void close() {
+        searchClient.close();
+        if (bookingClient != searchClient) {
+            bookingClient.close();
+        }
+    }
+}
@@ -0,0 +1,533 @@
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.example.BookingJournal;
+import org.example.ConnectionRegistry;
+import org.example.JournalFlusher;
+import org.example.SeatInventory;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The LoadGenerator class drives a fixed arrival rate of searches, seat listings and bookings against a
+ * {@link BookingStore}, {@link Transactions} on MongoDB or {@link CassandraBookingStore}, to find the
+ * throughput at which a cluster layout saturates.
+ *
+ * <p>The load is open-loop: the start time of every request is scheduled in advance, from a Poisson or a
+ * uniform arrival process, and the request is handed to a {@link BookingService} at that time whether or
+ * not the previous ones have completed. Response times are measured from the scheduled start, not from the
+ * moment the request actually ran, so that time spent queueing behind a slow request is part of the
+ * measurement instead of silently delaying the next request (coordinated omission). The service time, from
+ * the moment the request was handed over, is reported next to it: a growing gap between the two is the sign
+ * of saturation.
+ *
+ * <p>Routes and seats are picked with a Zipf distribution over a fixed random sample of the flights, so
+ * that a few hot routes and hot seats take most of the traffic; a skew of 0 picks uniformly. Passengers
+ * come from {@link PeopleGenerator}. A booking that fails is counted as a conflict: only passengers who can
+ * afford any seat are used, so the seat being taken is the only other reason a booking fails.
+ *
+ * <p>Every interval, and once more at the end for the whole run after the warm-up, the generator prints per
+ * operation the throughput, the conflict rate of bookings and the response time percentiles. The settings
+ * are read from {@code loadgen.properties} and can be overridden on the command line as {@code key=value},
+ * e.g. {@code rate=2000 mix.booking=0.5}.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class LoadGenerator {
+
+    /**
+     * Settings file read when the {@code loadgen.config} system property is not set.
+     */
+    public static final String DEFAULT_CONFIG_FILE = "loadgen.properties";
+
+    /**
+     * Highest price of a flight generated by {@code Modeling}; passengers with less are not used.
+     */
+    private static final double MAX_PRICE = 500;
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    /**
+     * The kinds of request sent.
+     */
+    enum Operation {
+        SEARCH, SEAT_LISTING, BOOKING
+    }
+
+    /**
+     * A flight that may be searched, listed or booked.
+     *
+     * @param departure the IATA code of the departure airport.
+     * @param arrival the IATA code of the arrival airport.
+     * @param flightID the ID of the flight.
+     * @param seatIDs the IDs of its seats.
+     */
+    record Route(String departure, String arrival, String flightID, String[] seatIDs) {
+    }
+
+    private final Properties config;
+    private final BookingStore store;
+    private final List<Route> routes;
+    private final List<PeopleGenerator.Person> people;
+    private final Zipf routePicker;
+    private final Map<Integer, Zipf> seatPickers = new HashMap<>();
+    private final double[] mix;
+    private final Map<Operation, Statistics> statistics = new EnumMap<>(Operation.class);
+    private final AtomicLong nextPerson = new AtomicLong();
+
+    /**
+     * Constructs a load generator.
+     *
+     * @param config the settings.
+     * @param store the store requests are executed with.
+     * @param routes the flights to pick from, hottest first.
+     * @param people the passengers to book.
+     */
+    public LoadGenerator(Properties config, BookingStore store, List<Route> routes,
+                         List<PeopleGenerator.Person> people) {
+        if (routes.isEmpty()) {
+            throw new IllegalArgumentException("No routes to send requests for");
+        }
+        this.config = config;
+        this.store = store;
+        this.routes = routes;
+        this.people = people;
+        this.routePicker = new Zipf(routes.size(), doubleSetting("routeSkew"));
+        double seatSkew = doubleSetting("seatSkew");
+        for (Route route : routes) {
+            seatPickers.computeIfAbsent(route.seatIDs().length, seats -> new Zipf(seats, seatSkew));
+        }
+
+        double search = doubleSetting("mix.search");
+        double seatListing = doubleSetting("mix.seatListing");
+        double booking = doubleSetting("mix.booking");
+        double total = search + seatListing + booking;
+        if (total <= 0) {
+            throw new IllegalArgumentException("The operation mix must not be empty");
+        }
+        this.mix = new double[]{search / total, (search + seatListing) / total};
+
+        for (Operation operation : Operation.values()) {
+            statistics.put(operation, new Statistics());
+        }
+    }
+
+    /**
+     * Runs the load for the configured duration, printing a report every interval and a summary at the end.
+     */
+    public void run() {
+        double rate = doubleSetting("rate");
+        if (rate <= 0) {
+            throw new IllegalArgumentException("The arrival rate must be positive: " + rate);
+        }
+        boolean poisson = "poisson".equalsIgnoreCase(config.getProperty("arrivals", "poisson").trim());
+        long warmupNanos = TimeUnit.SECONDS.toNanos(longSetting("warmupSeconds"));
+        long durationNanos = TimeUnit.SECONDS.toNanos(longSetting("durationSeconds"));
+        long intervalNanos = TimeUnit.SECONDS.toNanos(longSetting("reportIntervalSeconds"));
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        SplittableRandom random = new SplittableRandom(longSetting("seed"));
+
+        System.out.printf(Locale.ROOT, "Sending %.0f requests/s (%s arrivals) over %d routes for %d s after a %d s warm-up%n",
+                rate, poisson ? "Poisson" : "uniform", routes.size(),
+                TimeUnit.NANOSECONDS.toSeconds(durationNanos), TimeUnit.NANOSECONDS.toSeconds(warmupNanos));
+
+        BookingService service = new BookingService(store, (int) longSetting("maxConcurrentRequests"));
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+        long lastReport = measureFrom;
+        try {
+            double scheduled = start;
+            while (true) {
+                // Gaps are added to the schedule, never to the clock, so that falling behind does not lower the rate
+                scheduled += poisson ? -Math.log(1 - random.nextDouble()) * meanGapNanos : meanGapNanos;
+                long intendedStart = (long) scheduled;
+                if (intendedStart >= end) {
+                    break;
+                }
+                while (lastReport + intervalNanos <= intendedStart) {
+                    waitUntil(lastReport + intervalNanos);
+                    printInterval(lastReport + intervalNanos - measureFrom, intervalNanos);
+                    lastReport += intervalNanos;
+                }
+                waitUntil(intendedStart);
+                // Requests scheduled during the warm-up run but are not recorded
+                dispatch(service, random, intendedStart, intendedStart >= measureFrom);
+            }
+            waitUntil(end);
+        } finally {
+            service.close();
+        }
+        // Closing the service waited for every request in flight, which may take longer than the interval
+        printInterval(end - measureFrom, Math.max(System.nanoTime(), end) - lastReport);
+        printSummary(durationNanos);
+    }
+
+    /**
+     * Hands one request to the service and records, when it completes, its response time from the scheduled
+     * start and its service time from the moment it was handed over.
+     *
+     * @param service the service running the requests.
+     * @param random the generator picking the request, used on the calling thread only.
+     * @param intendedStart the scheduled start of the request, in {@link System#nanoTime()} units.
+     * @param measured whether the request counts, i.e. was scheduled after the warm-up.
+     */
+    private void dispatch(BookingService service, SplittableRandom random, long intendedStart, boolean measured) {
+        double draw = random.nextDouble();
+        Operation operation = draw < mix[0] ? Operation.SEARCH : draw < mix[1] ? Operation.SEAT_LISTING : Operation.BOOKING;
+        Route route = routes.get(routePicker.sample(random));
+        long dispatched = System.nanoTime();
+
+        CompletableFuture<?> request = switch (operation) {
+            case SEARCH -> service.getFlightsFromAirport(route.departure());
+            case SEAT_LISTING -> service.getAvailableSeats(route.departure(), route.arrival());
+            case BOOKING -> {
+                String seatID = route.seatIDs()[seatPickers.get(route.seatIDs().length).sample(random)];
+                yield service.bookFlight(route.flightID(), seatID, nextPerson());
+            }
+        };
+
+        request.whenComplete((result, error) -> {
+            if (!measured) {
+                return;
+            }
+            long now = System.nanoTime();
+            Statistics stats = statistics.get(operation);
+            if (error != null) {
+                stats.errors.incrementAndGet();
+            } else if (Boolean.FALSE.equals(result)) {
+                stats.conflicts.incrementAndGet();
+            }
+            stats.response.recordValue(Math.min(now - intendedStart, HIGHEST_TRACKABLE_NANOS));
+            stats.service.recordValue(Math.min(now - dispatched, HIGHEST_TRACKABLE_NANOS));
+        });
+    }
+
+    /**
+     * @return the next passenger of the pool who can still afford any seat.
+     */
+    private PeopleGenerator.Person nextPerson() {
+        for (int i = 0; i < people.size(); i++) {
+            PeopleGenerator.Person person = people.get((int) (nextPerson.getAndIncrement() % people.size()));
+            if (person.getBalance() >= MAX_PRICE) {
+                return person;
+            }
+        }
+        throw new IllegalStateException("Every passenger has run out of balance; increase people");
+    }
+
+    /**
+     * Prints the measurements of the interval that just ended.
+     *
+     * @param elapsedNanos the time since the end of the warm-up.
+     * @param intervalNanos the length of the interval.
+     */
+    private void printInterval(long elapsedNanos, long intervalNanos) {
+        double seconds = intervalNanos / 1e9;
+        for (Operation operation : Operation.values()) {
+            Statistics stats = statistics.get(operation);
+            Histogram interval = stats.takeInterval();
+            long conflicts = stats.intervalConflicts();
+            long errors = stats.intervalErrors();
+            if (interval.getTotalCount() == 0) {
+                continue;
+            }
+            System.out.printf(Locale.ROOT, "%6.0fs %-12s %8.1f ops/s %s%s%n",
+                    elapsedNanos / 1e9, operation, interval.getTotalCount() / seconds, percentiles(interval),
+                    outcomes(operation, interval.getTotalCount(), conflicts, errors));
+        }
+    }
+
+    /**
+     * Prints the measurements of the whole run after the warm-up.
+     *
+     * @param durationNanos the length of the measured run.
+     */
+    private void printSummary(long durationNanos) {
+        double seconds = durationNanos / 1e9;
+        System.out.println("Summary, response time from the scheduled start (service time from the hand-over):");
+        for (Operation operation : Operation.values()) {
+            Statistics stats = statistics.get(operation);
+            Histogram total = stats.responseTotal;
+            if (total.getTotalCount() == 0) {
+                continue;
+            }
+            System.out.printf(Locale.ROOT, "%-12s %8.1f ops/s %s%s%n", operation, total.getTotalCount() / seconds,
+                    percentiles(total), outcomes(operation, total.getTotalCount(), stats.conflicts.get(), stats.errors.get()));
+            System.out.printf(Locale.ROOT, "%-12s %14s %s%n", "", "service", percentiles(stats.serviceTotal));
+        }
+    }
+
+    private static String percentiles(Histogram histogram) {
+        return String.format(Locale.ROOT, "p50=%8.2fms p99=%8.2fms p999=%8.2fms max=%8.2fms",
+                histogram.getValueAtPercentile(50) / 1e6,
+                histogram.getValueAtPercentile(99) / 1e6,
+                histogram.getValueAtPercentile(99.9) / 1e6,
+                histogram.getMaxValue() / 1e6);
+    }
+
+    private static String outcomes(Operation operation, long count, long conflicts, long errors) {
+        String result = operation == Operation.BOOKING
+                ? String.format(Locale.ROOT, " conflicts=%5.1f%%", 100.0 * conflicts / count)
+                : "";
+        return errors > 0 ? result + " errors=" + errors : result;
+    }
+
+    /**
+     * Parks the calling thread until the given {@link System#nanoTime()} value.
+     */
+    private static void waitUntil(long deadline) {
+        for (long remaining = deadline - System.nanoTime(); remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private double doubleSetting(String key) {
+        String value = config.getProperty(key);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing setting: " + key);
+        }
+        return Double.parseDouble(value.trim());
+    }
+
+    private long longSetting(String key) {
+        return (long) doubleSetting(key);
+    }
+
+    /**
+     * Response and service time histograms and outcome counters of one kind of operation.
+     */
+    private static final class Statistics {
+        final Recorder response = new Recorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+        final Recorder service = new Recorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+        final Histogram responseTotal = new Histogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+        final Histogram serviceTotal = new Histogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+        final AtomicLong conflicts = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        private long reportedConflicts;
+        private long reportedErrors;
+
+        /**
+         * Takes the response times recorded since the previous call and adds them to the totals.
+         */
+        Histogram takeInterval() {
+            Histogram interval = response.getIntervalHistogram();
+            responseTotal.add(interval);
+            serviceTotal.add(service.getIntervalHistogram());
+            return interval;
+        }
+
+        long intervalConflicts() {
+            long total = conflicts.get();
+            long interval = total - reportedConflicts;
+            reportedConflicts = total;
+            return interval;
+        }
+
+        long intervalErrors() {
+            long total = errors.get();
+            long interval = total - reportedErrors;
+            reportedErrors = total;
+            return interval;
+        }
+    }
+
+    /**
+     * Samples ranks from 0 to n - 1 with probability proportional to {@code 1 / (rank + 1)^skew}, by binary
+     * search over the cumulative distribution.
+     */
+    static final class Zipf {
+        private final double[] cumulative;
+
+        Zipf(int n, double skew) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1 / Math.pow(i + 1, skew);
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            double u = random.nextDouble();
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulative[mid] < u) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Picks a random sample of the flights of the collection, with the IDs of their seats.
+     *
+     * @param collection the airport collection, in the shape written by {@code Modeling}.
+     * @param count the number of flights to pick.
+     * @param seed the seed of the sample.
+     * @return the flights, in random order.
+     */
+    static List<Route> loadRoutes(MongoCollection<Document> collection, int count, long seed) {
+        Map<ObjectId, String> codes = new HashMap<>();
+        List<String[]> flights = new ArrayList<>();
+        for (Document airport : collection.find()
+                .projection(Projections.include("IATA_code", "Flights.ID", "Flights.Destination"))) {
+            codes.put(airport.getObjectId("_id"), airport.getString("IATA_code"));
+            for (Document flight : airport.getList("Flights", Document.class, Collections.emptyList())) {
+                ObjectId destination = flight.getObjectId("Destination");
+                flights.add(new String[]{airport.getString("IATA_code"),
+                        destination == null ? null : destination.toHexString(), flight.getString("ID")});
+            }
+        }
+        Collections.shuffle(flights, new Random(seed));
+
+        List<Route> routes = new ArrayList<>(count);
+        for (String[] flight : flights) {
+            if (routes.size() == count) {
+                break;
+            }
+            String arrival = flight[1] == null ? null : codes.get(new ObjectId(flight[1]));
+            if (flight[0] == null || arrival == null) {
+                continue;
+            }
+            Document seats = collection.find(Filters.eq("Flights.ID", flight[2]))
+                    .projection(Projections.elemMatch("Flights", Filters.eq("ID", flight[2])))
+                    .first();
+            if (seats == null) {
+                continue;
+            }
+            List<String> seatIDs = new ArrayList<>();
+            for (Document seat : seats.getList("Flights", Document.class).get(0).getList("Seats", Document.class, Collections.emptyList())) {
+                seatIDs.add(seat.getString("ID"));
+            }
+            if (!seatIDs.isEmpty()) {
+                routes.add(new Route(flight[0], arrival, flight[2], seatIDs.toArray(new String[0])));
+            }
+        }
+        return routes;
+    }
+
+    /**
+     * Opens the store named by the {@code store} setting: {@code mongo}, the default, {@code cassandra},
+     * configured by {@code cassandra.properties} and loaded with {@code CassandraBookingStore}, or
+     * {@code memory}, which decides bookings with a {@link SeatInventory} loaded from the collection and
+     * writes them to MongoDB, through a {@link BookingJournal} if the {@code journal} setting names a file.
+     *
+     * @param config the settings.
+     * @param registry the registry of the MongoDB clients.
+     * @return the store, recording into the latency metrics of the registry.
+     * @throws IOException if the Cassandra settings cannot be read.
+     */
+    private static BookingStore openStore(Properties config, ConnectionRegistry registry) throws IOException {
+        String name = config.getProperty("store", "mongo").trim();
+        if ("cassandra".equalsIgnoreCase(name)) {
+            Properties cassandraConfig = new Properties();
+            try (Reader reader = new FileReader(System.getProperty("cassandra.config", CassandraBookingStore.DEFAULT_CONFIG_FILE))) {
+                cassandraConfig.load(reader);
+            }
+            CassandraBookingStore store = new CassandraBookingStore(CassandraBookingStore.connect(cassandraConfig), cassandraConfig);
+            store.setLatencyMetrics(registry.getLatencyMetrics());
+            return store;
+        }
+        boolean memory = "memory".equalsIgnoreCase(name);
+        if (!memory && !"mongo".equalsIgnoreCase(name)) {
+            throw new IllegalArgumentException("Unknown store: " + name);
+        }
+        Transactions transactions = new Transactions(registry.getClient(ConnectionRegistry.SEARCH),
+                registry.getClient(ConnectionRegistry.BOOKING), config.getProperty("database"),
+                config.getProperty("collection"));
+        transactions.setLatencyMetrics(registry.getLatencyMetrics());
+        transactions.setOperationProfiles(registry.getOperationProfiles());
+        if (!memory) {
+            return transactions;
+        }
+        SeatInventory inventory = SeatInventory.load(registry.getClient(ConnectionRegistry.SEARCH)
+                .getDatabase(config.getProperty("database")).getCollection(config.getProperty("collection")));
+        System.out.printf("Loaded %d flights into the seat inventory%n", inventory.flights());
+        String journalFile = config.getProperty("journal", "").trim();
+        if (journalFile.isEmpty()) {
+            return new InMemoryBookingStore(inventory, transactions);
+        }
+        BookingJournal journal = new BookingJournal(Path.of(journalFile),
+                Integer.parseInt(config.getProperty("journal.sizeMB", "64").trim()) << 20);
+        JournalFlusher flusher = new JournalFlusher(journal, registry.getClient(ConnectionRegistry.BOOKING)
+                .getDatabase(config.getProperty("database")).getCollection(config.getProperty("collection")),
+                Integer.parseInt(config.getProperty("journal.batchSize", "500").trim()));
+        return new InMemoryBookingStore(inventory, transactions, flusher);
+    }
+
+    /**
+     * Loads the settings, samples the routes and people and runs the load against the Airports database.
+     *
+     * @param args optional {@code key=value} overrides of the settings, e.g. {@code rate=500}.
+     */
+    public static void main(String[] args) {
+        Properties config = new Properties();
+        try (Reader reader = new FileReader(System.getProperty("loadgen.config", DEFAULT_CONFIG_FILE))) {
+            config.load(reader);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            config.setProperty(arg.substring(0, separator).trim(), arg.substring(separator + 1).trim());
+        }
+
+        try (ConnectionRegistry registry = ConnectionRegistry.load()) {
+            long seed = Long.parseLong(config.getProperty("seed").trim());
+            List<Route> routes = loadRoutes(registry.getClient(ConnectionRegistry.SEARCH)
+                            .getDatabase(config.getProperty("database")).getCollection(config.getProperty("collection")),
+                    Integer.parseInt(config.getProperty("routes").trim()), seed);
+            List<PeopleGenerator.Person> people = new PeopleGenerator(seed)
+                    .people(Long.parseLong(config.getProperty("people").trim()))
+                    .parallel()
+                    .filter(person -> person.getBalance() >= MAX_PRICE)
+                    .toList();
+
+            try (BookingStore store = openStore(config, registry)) {
+                new LoadGenerator(config, store, routes, people).run();
+            }
+
+            System.out.println("Driver command latencies:");
+            System.out.print(registry.getLatencyMetrics().report());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -1,18 +1,29 @@
 package org.example;
 
 import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
 
+import org.bson.BsonType;
 import org.bson.Document;
-import org.json.JSONArray;
-import org.json.JSONObject;
-import org.json.JSONTokener;
+import org.bson.codecs.DecoderContext;
+import org.bson.json.JsonReader;
 
 import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * The {@code MongoDBShardedConnection} class provides methods for reading airport data from a JSON file and
@@ -21,9 +32,12 @@ import java.util.List;
  *
  * <p> The primary functionalities include:
  * <ul>
- * <li>Reading and parsing a JSON file containing airport data.
+ * <li>Reading and parsing a JSON file containing airport data, one airport at a time, straight into
+ * {@link Airport} objects with the {@link AirportCodec}.
  * <li>Constructing MongoDB documents from the parsed JSON data.
- * <li>Connecting to a MongoDB database and inserting the documents into a specified collection.
+ * <li>Connecting to a MongoDB database and inserting the documents into a specified collection
+ * in fixed-size batches, while the next batch is being parsed.
+ * <li>Indexing the GeoJSON {@code location} of the airports with a {@code 2dsphere} index.
  * </ul>
  *
  * <p>The JSON structure includes nested arrays representing flights and seats, which are also parsed and included
@@ -33,14 +47,13 @@ import java.util.List;
  * <pre>
  * {@code
  * public static void main(String[] args) {
- *     String connectionString = "mongodb://localhost:27017";
- *     try (MongoClient mongoClient = MongoClients.create(connectionString)) {
+ *     try (ConnectionRegistry registry = ConnectionRegistry.load()) {
+ *         MongoClient mongoClient = registry.getClient(ConnectionRegistry.SHARDED);
  *         MongoDatabase database = mongoClient.getDatabase("myDatabase");
  *         System.out.println("Connected to database: " + database.getName());
  *
  *         MongoCollection<Document> collection = database.getCollection("myCollection");
- *         List<Document> airports = getData();
- *         collection.insertMany(airports);
+ *         long imported = importData(collection, DATA_FILE, DEFAULT_BATCH_SIZE);
  *
  *     } catch (Exception e) {
  *         e.printStackTrace();
@@ -51,115 +64,189 @@ import java.util.List;
  */
 public class MongoDBShardedConnection {
 
+    /**
+     * Path of the JSON export containing the airport data.
+     */
+    public static final String DATA_FILE = "Data/Airports Modeling Export.json";
+
+    /**
+     * Field holding the position of an airport as a GeoJSON point, next to the original geoPoint string.
+     */
+    public static final String LOCATION_FIELD = "location";
+
+    /**
+     * Number of airport documents sent to mongos in a single insertMany call by default.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    /**
+     * Number of parsed batches that may wait for the writer before parsing blocks.
+     */
+    private static final int PENDING_BATCHES = 2;
+
+    /**
+     * Marker handed to the writer thread once the whole file has been parsed.
+     */
+    private static final List<Airport> END_OF_DATA = new ArrayList<>();
+
+    /**
+     * Codec reading the airports of the JSON export and writing them to the collection.
+     */
+    private static final AirportCodec AIRPORT_CODEC = new AirportCodec(new FlightCodec(new SeatCodec()));
+
     /**
      * Reads airport data from a JSON file and constructs a list of MongoDB documents.
      * The JSON file is expected to contain an array of airport objects, each of which may
      * contain nested arrays for flights and seats.
      *
+     * <p>This keeps every document in memory; use {@link #importData} to load large files.
+     *
      * @return a list of {@link Document} objects representing the airport data.
      */
     public static List<Document> getData() {
         List<Document> airportDocuments = new ArrayList<>();
 
-        try (FileReader reader = new FileReader("Data/Airports Modeling Export.json")) {
-            // Create a JSONTokener from the FileReader
-            JSONTokener tokener = new JSONTokener(reader);
-
-            // Create a JSONArray from the tokener
-            JSONArray jsonArray = new JSONArray(tokener);
-
-            // Iterate through the JSON array elements
-            for (int i = 0; i < jsonArray.length(); i++) {
-                // Get the current JSON object
-                JSONObject jsonObject = jsonArray.getJSONObject(i);
-
-                // Extract desired fields for the airport document
-                String geoPoint = jsonObject.optString("Geo_Point", "");
-                String name = jsonObject.optString("Name", "");
-                String nameEn = jsonObject.optString("Name_(en)", "");
-                String nameFr = jsonObject.optString("Name_(fr)", "");
-                String iataCode = jsonObject.optString("IATA_code", "");
-                String icaoCode = jsonObject.optString("ICAO_code", "");
-                String operator = jsonObject.optString("Operator", "");
-                String country = jsonObject.optString("Country", "");
-                String countryCode = jsonObject.optString("Country_code", "");
-                int size = jsonObject.optInt("Size", 0);
-
-                // Extract the array of flights for the airport
-                JSONArray flightsArray = jsonObject.getJSONArray("Flights");
-                List<Flight> flights = new ArrayList<>();
-
-                // Iterate through the flights array elements
-                for (int j = 0; j < flightsArray.length(); j++) {
-                    JSONObject flightObject = flightsArray.getJSONObject(j);
-
-                    // Extract desired fields for the flight
-                    String flightId = flightObject.optString("ID", "");
-                    int numberOfSeats = flightObject.optInt("Number_of_Seats", 0);
-                    String day = flightObject.optString("Day", "");
-                    String hour = flightObject.optString("Hour", "");
-                    String flightOperator = flightObject.optString("Operator", "");
-                    String duration = flightObject.optString("Duration", "");
-                    int pricePerPerson = flightObject.optInt("Price_per_Person", 0);
-
-                    // Extract the array of seats for the flight
-                    JSONArray seatsArray = flightObject.getJSONArray("Seats");
-                    List<Seat> seats = new ArrayList<>();
-
-                    // Iterate through the seats array elements
-                    for (int k = 0; k < seatsArray.length(); k++) {
-                        JSONObject seatObject = seatsArray.getJSONObject(k);
-
-                        // Extract desired fields for the seat
-                        String status = seatObject.optString("Status", "");
-                        String seatId = seatObject.optString("ID", "");
-                        String nameOnTicket = seatObject.optString("Name", "");
-                        String surnameOnTicket = seatObject.optString("Surname", "");
-                        String documentInfo = seatObject.optString("Document_Info", "");
-                        String dateOfBirth = seatObject.optString("Date_of_Birth", "");
-                        int balance = seatObject.optInt("Balance", 0);
-
-                        // Create a Seat object and add it to the list of seats
-                        Seat seat = new Seat(status, seatId, nameOnTicket, surnameOnTicket, documentInfo, dateOfBirth, balance);
-                        seats.add(seat);
-                    }
+        try (FileReader reader = new FileReader(DATA_FILE)) {
+            forEachAirport(reader, airport -> airportDocuments.add(airport.toDocument()));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
 
-                    // Create a Flight object and add it to the list of flights
-                    Flight flight = new Flight(flightId, numberOfSeats, day, hour, flightOperator, duration, pricePerPerson, seats);
-                    flights.add(flight);
-                }
+        return airportDocuments;
+    }
 
-                // Create an Airport object and add it to the list of documents
-                Airport document = new Airport(geoPoint, name, nameEn, nameFr, iataCode, icaoCode, operator, country, countryCode, size, flights);
-                airportDocuments.add(document.toDocument());
+    /**
+     * Streams the JSON array read from the given reader, handing each airport to the consumer
+     * as soon as it has been parsed. Only one airport is held in memory at a time.
+     *
+     * @param reader the reader positioned at the start of the JSON array.
+     * @param consumer the consumer receiving every parsed airport, in file order.
+     */
+    public static void forEachAirport(Reader reader, Consumer<Airport> consumer) {
+        JsonReader jsonReader = new JsonReader(reader);
+        DecoderContext context = DecoderContext.builder().build();
+
+        if (jsonReader.readBsonType() != BsonType.ARRAY) {
+            throw new IllegalArgumentException("The airport data must be a JSON array");
+        }
+        jsonReader.readStartArray();
+        while (jsonReader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            // Decode a single airport and hand it over before reading the next one
+            consumer.accept(AIRPORT_CODEC.decode(jsonReader, context));
+        }
+        jsonReader.readEndArray();
+    }
+
+    /**
+     * Streams the JSON export into the collection with unordered insertMany calls of at most batchSize
+     * documents. Parsing continues on the calling thread while a writer thread sends the previous batch,
+     * and at most a few batches are buffered, so heap usage does not depend on the size of the file.
+     * The {@code 2dsphere} index on {@value #LOCATION_FIELD} is built once every document is in.
+     *
+     * @param collection the collection the airport documents are inserted into.
+     * @param path the path of the JSON export.
+     * @param batchSize the maximum number of documents per insertMany call.
+     * @return the number of airport documents inserted.
+     * @throws IOException if the file cannot be read.
+     * @throws InterruptedException if interrupted while waiting for the writer.
+     * @throws ExecutionException if an insertMany call failed.
+     */
+    public static long importData(MongoCollection<Document> collection, String path, int batchSize)
+            throws IOException, InterruptedException, ExecutionException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        // Airports are encoded by the codec as they are sent, without an intermediate Document
+        MongoCollection<Airport> airports = collection.withDocumentClass(Airport.class)
+                .withCodecRegistry(AirportCodecProvider.REGISTRY);
+
+        BlockingQueue<List<Airport>> pending = new ArrayBlockingQueue<>(PENDING_BATCHES);
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try (FileReader reader = new FileReader(path)) {
+            Future<Long> inserted = writer.submit(() -> {
+                InsertManyOptions options = new InsertManyOptions().ordered(false);
+                long count = 0;
+                for (List<Airport> batch = pending.take(); batch != END_OF_DATA; batch = pending.take()) {
+                    airports.insertMany(batch, options);
+                    count += batch.size();
+                }
+                return count;
+            });
+
+            try {
+                List<Airport> batch = new ArrayList<>(batchSize);
+                forEachAirport(reader, airport -> {
+                    batch.add(airport);
+                    if (batch.size() == batchSize) {
+                        // Hand over a copy of the references, the airports themselves are not copied
+                        enqueue(pending, new ArrayList<>(batch), inserted);
+                        batch.clear();
+                    }
+                });
+                if (!batch.isEmpty()) {
+                    enqueue(pending, batch, inserted);
+                }
+            } finally {
+                // Always release the writer, even when parsing failed half way through the file, but stop
+                // waiting for room once it has stopped, so that its failure is reported by get() below
+                while (!inserted.isDone() && !pending.offer(END_OF_DATA, 100, TimeUnit.MILLISECONDS)) {
+                    // The writer is still behind
+                }
             }
 
-        } catch (Exception e) {
-            e.printStackTrace();
+            long count = inserted.get();
+            // Built after the load, which is faster than maintaining the index during it
+            collection.createIndex(Indexes.geo2dsphere(LOCATION_FIELD));
+            return count;
+        } finally {
+            writer.shutdownNow();
         }
+    }
 
-        return airportDocuments;
+    /**
+     * Hands a full batch to the writer thread, waiting while the writer is behind. Fails fast if the
+     * writer has already stopped because an insert failed.
+     *
+     * @param pending the queue read by the writer thread.
+     * @param batch the batch to insert.
+     * @param writer the writer task.
+     */
+    private static void enqueue(BlockingQueue<List<Airport>> pending, List<Airport> batch, Future<Long> writer) {
+        try {
+            while (!pending.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                if (writer.isDone()) {
+                    writer.get();
+                    throw new IllegalStateException("The writer stopped before the end of the data");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the writer", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Insert failed", e.getCause());
+        }
     }
 
     /**
-     * Main method to establish a connection to the MongoDB sharded cluster, retrieve airport data,
-     * and insert it into a specified MongoDB collection.
+     * Main method to establish a connection to the MongoDB sharded cluster and stream the airport data
+     * into a specified MongoDB collection.
      *
-     * @param args the command-line arguments (not used).
+     * @param args the command-line arguments: optionally the insert batch size.
      */
     public static void main(String[] args) {
-        // Connection to the mongos router
-        String connectionString = "mongodb://localhost:27017";
-        try (MongoClient mongoClient = MongoClients.create(connectionString)) {
+        // Connection to the mongos router, configured in connections.properties
+        int batchSize = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_BATCH_SIZE;
+        try (ConnectionRegistry registry = ConnectionRegistry.load()) {
+            MongoClient mongoClient = registry.getClient(ConnectionRegistry.SHARDED);
             MongoDatabase database = mongoClient.getDatabase("myDatabase");
             System.out.println("Connected to database: " + database.getName());
 
             MongoCollection<Document> collection = database.getCollection("myCollection");
-            List<Document> airports = getData();
-            collection.insertMany(airports);
+            long imported = importData(collection, DATA_FILE, batchSize);
+            System.out.println("Imported " + imported + " airports");
 
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
-}
+}
\ No newline at end of file
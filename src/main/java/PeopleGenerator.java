@@ -1,83 +1,128 @@
-import java.text.DecimalFormat;
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
-import java.util.Set;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Spliterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * The PeopleGenerator class is responsible for generating a list of Person objects with
  * random attributes, including name, surname, document information, date of birth, and balance.
  * It can also generate a "poor" person with a limited balance.
  *
+ * <p>People are generated from a seed, in blocks of {@value #BLOCK_SIZE} that each draw from their own
+ * {@link SplittableRandom}, so that {@link #people(long)} can be consumed in parallel and still yields the
+ * same people for the same seed and reference date. Birth dates are drawn relative to the reference date,
+ * which is fixed unless given, so that a seed does not yield different people on different days. Every person gets the next sequence number of the generator, and the
+ * document number is a bijection of that number, so document numbers never repeat within a generator
+ * and no set of the numbers already issued is kept.
+ *
  * @version 1.0
  * @since 2024-07-02
  * @author Andrea Moleri
  */
 public class PeopleGenerator {
 
-    private static final Random RANDOM = new Random();
-    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("#.##");
+    /**
+     * Number of people drawn from the same {@link SplittableRandom}, and the granularity of parallel splits.
+     */
+    static final int BLOCK_SIZE = 1024;
+
+    private static final char[] DOCUMENT_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".toCharArray();
+    private static final int DOCUMENT_LENGTH = 7;
 
     /**
-     * Generates a list of Person objects with specified count.
-     *
-     * @param count The number of Person objects to generate.
-     * @return A list of generated Person objects.
+     * Number of distinct document numbers, i.e. 36^7.
      */
-    public List<Person> generatePeople(int count) {
-        List<Person> people = new ArrayList<>(count);
-        Set<String> documentNumbers = new HashSet<>(count);
+    private static final long DOCUMENT_SPACE = 78_364_164_096L;
 
-        for (int i = 0; i < count; i++) {
-            String name = NameSurnamePool.NAMES.get(RANDOM.nextInt(NameSurnamePool.NAMES.size()));
-            String surname = NameSurnamePool.SURNAMES.get(RANDOM.nextInt(NameSurnamePool.SURNAMES.size()));
-            String documentInfo;
+    /**
+     * A prime, hence coprime with 36^7, small enough that multiplying a sequence number by it cannot overflow.
+     */
+    private static final long DOCUMENT_MULTIPLIER = 67_108_859L;
 
-            // Generate a unique document number
-            do {
-                documentInfo = generateDocumentInfo();
-            } while (documentNumbers.contains(documentInfo));
+    /**
+     * Reference date of the birth dates of a seeded generator that is not given one.
+     */
+    static final LocalDate DEFAULT_REFERENCE_DATE = LocalDate.of(2026, 1, 1);
 
-            documentNumbers.add(documentInfo);
-            String dateOfBirth = generateDateOfBirth();
-            double balance = 100 + (100000 - 100) * RANDOM.nextDouble();
+    private final long seed;
+    private final long documentOffset;
+    private final long oldestBirthDay;
+    private final long youngestBirthDay;
+    private final AtomicLong issued = new AtomicLong();
 
-            // Round the balance to two decimal places
-            balance = Double.parseDouble(DECIMAL_FORMAT.format(balance));
+    /**
+     * Constructs a generator with a random seed, of people aged 18 to 100 today.
+     */
+    public PeopleGenerator() {
+        this(new SplittableRandom().nextLong(), LocalDate.now());
+    }
 
-            people.add(new Person(name, surname, documentInfo, dateOfBirth, balance));
-        }
+    /**
+     * Constructs a generator that always generates the same people, in the same order, for the same seed,
+     * with birth dates relative to {@link #DEFAULT_REFERENCE_DATE}.
+     *
+     * @param seed The seed.
+     */
+    public PeopleGenerator(long seed) {
+        this(seed, DEFAULT_REFERENCE_DATE);
+    }
 
-        return people;
+    /**
+     * Constructs a generator that always generates the same people, in the same order, for the same seed
+     * and reference date.
+     *
+     * @param seed The seed.
+     * @param referenceDate The date the people are aged 18 to 100 on.
+     */
+    public PeopleGenerator(long seed, LocalDate referenceDate) {
+        this.seed = seed;
+        this.documentOffset = Math.floorMod(mix(seed), DOCUMENT_SPACE);
+        this.oldestBirthDay = referenceDate.minusYears(100).toEpochDay();
+        this.youngestBirthDay = referenceDate.minusYears(18).toEpochDay();
     }
 
     /**
-     * Generates a 7-character alphanumeric document information string.
+     * Generates a list of Person objects with specified count.
      *
-     * @return A randomly generated document information string.
+     * @param count The number of Person objects to generate.
+     * @return A list of generated Person objects.
      */
-    private String generateDocumentInfo() {
-        String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-        StringBuilder sb = new StringBuilder(7);
-        for (int i = 0; i < 7; i++) {
-            sb.append(chars.charAt(RANDOM.nextInt(chars.length())));
-        }
-        return sb.toString();
+    public List<Person> generatePeople(int count) {
+        return people(count).collect(Collectors.toCollection(() -> new ArrayList<>(count)));
     }
 
     /**
-     * Generates a random date of birth between 18 and 100 years ago.
+     * Returns a stream of the next people of this generator. The stream is sequential; call
+     * {@link Stream#parallel()} on it to generate the people on several threads.
      *
-     * @return A randomly generated date of birth in "yyyy-MM-dd" format.
-     */
-    private String generateDateOfBirth() {
-        long now = System.currentTimeMillis();
-        long eighteenYearsAgo = now - (18L * 365 * 24 * 60 * 60 * 1000);
-        long hundredYearsAgo = now - (100L * 365 * 24 * 60 * 60 * 1000);
-        long randomMillis = ThreadLocalRandom.current().nextLong(hundredYearsAgo, eighteenYearsAgo);
-        return new java.text.SimpleDateFormat("yyyy-MM-dd").format(new java.util.Date(randomMillis));
+     * @param count The number of people to generate.
+     * @return A stream of exactly count people.
+     */
+    public Stream<Person> people(long count) {
+        return StreamSupport.stream(spliterator(count), false);
+    }
+
+    /**
+     * Returns a spliterator over the next people of this generator, which splits on block boundaries.
+     *
+     * @param count The number of people to generate.
+     * @return A spliterator of exactly count people.
+     */
+    public Spliterator<Person> spliterator(long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("The number of people must not be negative: " + count);
+        }
+        long first = issued.getAndAdd(count);
+        if (first + count > DOCUMENT_SPACE) {
+            throw new IllegalStateException("No more than " + DOCUMENT_SPACE + " people have distinct document numbers");
+        }
+        return new PersonSpliterator(first, first, first + count, null);
     }
 
     /**
@@ -86,13 +131,119 @@ public class PeopleGenerator {
      * @return A generated "poor" Person object.
      */
     public Person generatePoorPerson() {
-        String name = NameSurnamePool.NAMES.get(RANDOM.nextInt(NameSurnamePool.NAMES.size()));
-        String surname = NameSurnamePool.SURNAMES.get(RANDOM.nextInt(NameSurnamePool.SURNAMES.size()));
-        String documentInfo = generateDocumentInfo();
-        String dateOfBirth = generateDateOfBirth();
-        double balance = 10.0; // Balance limited to 10$
+        Person person = people(1).findFirst().orElseThrow();
+        person.setBalance(10.0); // Balance limited to 10$
+        person.setOldBalance(10.0);
+        return person;
+    }
+
+    /**
+     * Generates the person with the given sequence number.
+     *
+     * @param random The random generator of the block of the person.
+     * @param sequence The sequence number of the person.
+     * @return The person.
+     */
+    private Person generatePerson(SplittableRandom random, long sequence) {
+        String name = NameSurnamePool.NAMES.get(random.nextInt(NameSurnamePool.NAMES.size()));
+        String surname = NameSurnamePool.SURNAMES.get(random.nextInt(NameSurnamePool.SURNAMES.size()));
+        String dateOfBirth = LocalDate.ofEpochDay(random.nextLong(oldestBirthDay, youngestBirthDay)).toString();
+        // Rounded to two decimal places
+        double balance = Math.round((100 + (100000 - 100) * random.nextDouble()) * 100) / 100.0;
+        return new Person(name, surname, documentInfo(sequence), dateOfBirth, balance);
+    }
 
-        return new Person(name, surname, documentInfo, dateOfBirth, balance);
+    /**
+     * Maps a sequence number to a 7-character alphanumeric document number. The map is an affine
+     * permutation modulo 36^7, so distinct sequence numbers get distinct document numbers.
+     *
+     * @param sequence The sequence number, below 36^7.
+     * @return The document number.
+     */
+    private String documentInfo(long sequence) {
+        long value = (sequence * DOCUMENT_MULTIPLIER + documentOffset) % DOCUMENT_SPACE;
+        char[] chars = new char[DOCUMENT_LENGTH];
+        for (int i = DOCUMENT_LENGTH - 1; i >= 0; i--) {
+            chars[i] = DOCUMENT_CHARS[(int) (value % DOCUMENT_CHARS.length)];
+            value /= DOCUMENT_CHARS.length;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * The seed of the random generator of a block, spread over all 64 bits so that the generators of
+     * neighbouring blocks do not produce overlapping sequences.
+     *
+     * @param blockStart The sequence number of the first person of the block.
+     * @return The seed.
+     */
+    private long blockSeed(long blockStart) {
+        return mix(seed ^ mix(blockStart));
+    }
+
+    /**
+     * The 64-bit finalizer of MurmurHash3.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    /**
+     * Generates the people with sequence numbers from {@code next} to {@code end - 1}. Blocks are counted
+     * from {@code origin}, the first sequence number of the stream, and splits happen only between blocks,
+     * so every person is drawn from the same generator whatever the splits.
+     */
+    private final class PersonSpliterator implements Spliterator<Person> {
+        private final long origin;
+        private long next;
+        private final long end;
+        private SplittableRandom random;
+
+        PersonSpliterator(long origin, long next, long end, SplittableRandom random) {
+            this.origin = origin;
+            this.next = next;
+            this.end = end;
+            this.random = random;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Person> action) {
+            if (next >= end) {
+                return false;
+            }
+            if ((next - origin) % BLOCK_SIZE == 0) {
+                random = new SplittableRandom(blockSeed(next));
+            }
+            action.accept(generatePerson(random, next++));
+            return true;
+        }
+
+        @Override
+        public Spliterator<Person> trySplit() {
+            // The prefix keeps the current block, this spliterator continues from a later block boundary
+            long currentBlock = (next - origin) / BLOCK_SIZE;
+            long lastBlock = (end - 1 - origin) / BLOCK_SIZE;
+            if (next >= end || lastBlock - currentBlock < 1) {
+                return null;
+            }
+            long mid = origin + (currentBlock + (lastBlock - currentBlock + 1) / 2) * BLOCK_SIZE;
+            PersonSpliterator prefix = new PersonSpliterator(origin, next, mid, random);
+            next = mid;
+            random = null;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - next;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
     }
 
     /**
@@ -198,11 +349,15 @@ public class PeopleGenerator {
     }
 
     /**
-     * The main method to test the generation of Person objects.
+     * The main method to test the generation of Person objects: prints a few people, checks that a parallel
+     * stream yields the same people as a sequential one, names, birth dates and balances included, with
+     * distinct document numbers, and measures how
+     * fast people are generated in parallel.
      *
-     * @param args Command line arguments (not used).
+     * @param args Command line arguments: optionally the number of people generated in parallel.
      */
     public static void main(String[] args) {
+        long count = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
         PeopleGenerator generator = new PeopleGenerator();
         List<Person> people = generator.generatePeople(10000);
 
@@ -210,5 +365,20 @@ public class PeopleGenerator {
         for (int i = 0; i < 10; i++) {
             System.out.println(people.get(i));
         }
+
+        // Whole people are compared: the document number alone follows from the sequence number, whatever the seeding
+        List<Person> sequential = new PeopleGenerator(42).people(1_000_000).toList();
+        List<Person> parallel = new PeopleGenerator(42).people(1_000_000).parallel().toList();
+        boolean matches = sequential.stream().map(Person::toString).toList()
+                .equals(parallel.stream().map(Person::toString).toList());
+        long distinct = parallel.stream().map(Person::getDocumentInfo).distinct().count();
+        System.out.println("Parallel matches sequential: " + matches
+                + ", distinct document numbers: " + distinct + " of " + parallel.size());
+
+        long start = System.nanoTime();
+        double total = generator.people(count).parallel().mapToDouble(Person::getBalance).sum();
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        System.out.printf("Generated %d people in %d ms (%d per second), total balance %.2f%n",
+                count, elapsedMillis, count * 1000 / elapsedMillis, total);
     }
 }
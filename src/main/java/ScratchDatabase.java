@@ -0,0 +1,145 @@
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The ScratchDatabase class seeds a throw-away database shaped like the one built by {@link Modeling}, so that
+ * the checks and comparisons that book seats never touch the {@code Airports} data, and drops it when closed.
+ * Airport {@code i} has flights to the airports that follow it, so there is always a route from the first
+ * airport to the second one, and every flight has the same seats, all vacant.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class ScratchDatabase implements AutoCloseable {
+
+    /**
+     * Name of the airport collection of a scratch database.
+     */
+    public static final String COLLECTION_NAME = "airportCollection";
+
+    private final MongoClient mongoClient;
+    private final String dbName;
+    private final MongoCollection<Document> collection;
+    private final List<String> airportCodes = new ArrayList<>();
+    private final List<String> flightIds = new ArrayList<>();
+    private final List<String> seatIds = new ArrayList<>();
+
+    /**
+     * Drops any previous database with the given name and seeds a new one.
+     *
+     * @param mongoClient The client the database is seeded with; it is not closed with the database.
+     * @param dbName The name of the scratch database.
+     * @param airports The number of airports to create.
+     * @param flightsPerAirport The number of flights departing from every airport.
+     * @param seatsPerFlight The number of seats of every flight.
+     */
+    public ScratchDatabase(MongoClient mongoClient, String dbName, int airports, int flightsPerAirport, int seatsPerFlight) {
+        if (flightsPerAirport >= airports) {
+            throw new IllegalArgumentException("Every flight needs a distinct destination: " + flightsPerAirport + " >= " + airports);
+        }
+        this.mongoClient = mongoClient;
+        this.dbName = dbName;
+        mongoClient.getDatabase(dbName).drop();
+        this.collection = mongoClient.getDatabase(dbName).getCollection(COLLECTION_NAME);
+
+        List<Document> airportDocs = new ArrayList<>(airports);
+        for (int i = 0; i < airports; i++) {
+            String code = String.format("B%02d", i);
+            airportCodes.add(code);
+            airportDocs.add(new Document("_id", new ObjectId())
+                    .append("Name", "Scratch Airport " + code)
+                    .append("IATA_code", code)
+                    .append("Country", "Scratch")
+                    .append("Size", flightsPerAirport * seatsPerFlight));
+        }
+
+        for (Document seat : Modeling.generateSeats(seatsPerFlight)) {
+            seatIds.add(seat.getString("ID"));
+        }
+
+        for (int i = 0; i < airports; i++) {
+            List<Document> flights = new ArrayList<>(flightsPerAirport);
+            for (int j = 0; j < flightsPerAirport; j++) {
+                String flightId = new ObjectId().toString();
+                flightIds.add(flightId);
+                flights.add(new Document("ID", flightId)
+                        .append("Number_of_Seats", seatsPerFlight)
+                        .append("Day", "2024-07-05")
+                        .append("Hour", "14:30")
+                        .append("Operator", "Lufthansa")
+                        .append("Duration", "2 hours")
+                        .append("Price_per_Person", 100)
+                        .append("Destination", airportDocs.get((i + 1 + j) % airports).getObjectId("_id"))
+                        .append("Seats", Modeling.generateSeats(seatsPerFlight)));
+            }
+            airportDocs.get(i).append("Flights", flights);
+        }
+        collection.insertMany(airportDocs);
+    }
+
+    /**
+     * @return The name of the scratch database.
+     */
+    public String getDatabaseName() {
+        return dbName;
+    }
+
+    /**
+     * @return The airport collection of the scratch database.
+     */
+    public MongoCollection<Document> getCollection() {
+        return collection;
+    }
+
+    /**
+     * @return The IATA codes of the airports, in creation order.
+     */
+    public List<String> airportCodes() {
+        return Collections.unmodifiableList(airportCodes);
+    }
+
+    /**
+     * @return The IDs of the flights, grouped by departure airport in creation order.
+     */
+    public List<String> flightIds() {
+        return Collections.unmodifiableList(flightIds);
+    }
+
+    /**
+     * @return The IDs of the seats every flight has.
+     */
+    public List<String> seatIds() {
+        return Collections.unmodifiableList(seatIds);
+    }
+
+    /**
+     * Sets every seat of every flight back to vacant, without a passenger or a hold.
+     */
+    public void resetSeats() {
+        String seatPath = "Flights.$[].Seats.$[].";
+        collection.updateMany(new Document(), Updates.combine(
+                Updates.set(seatPath + "Status", "Vacant"),
+                Updates.set(seatPath + "Name", ""),
+                Updates.set(seatPath + "Surname", ""),
+                Updates.set(seatPath + "Document_Info", ""),
+                Updates.set(seatPath + "Date_of_Birth", ""),
+                Updates.set(seatPath + "Balance", 0),
+                Updates.unset(seatPath + "Hold_Expires")));
+    }
+
+    /**
+     * Drops the scratch database.
+     */
+    @Override
+    public void close() {
+        mongoClient.getDatabase(dbName).drop();
+    }
+}
@@ -3,35 +3,86 @@ import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Aggregates;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOptions;
 import com.mongodb.client.model.UpdateOptions;
 import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.geojson.Point;
+import com.mongodb.client.model.geojson.Position;
 import com.mongodb.client.result.UpdateResult;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
+import org.example.Airport;
+import org.example.AirportCache;
+import org.example.AirportCodecProvider;
+import org.example.AirportLocationIndex;
+import org.example.GeoPoints;
+import org.example.BookingAuditLog;
+import org.example.Flight;
+import org.example.LatencyMetrics;
+import org.example.OperationProfiles;
+import org.example.Seat;
+import org.example.SeatStatus;
+import org.example.TimingWheel;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.logging.*;
 
 /**
  * The Transactions class provides methods for interacting with a MongoDB collection
  * to retrieve flight information, check seat availability, and handle booking operations
- * with thread safety considerations.
+ * with thread safety considerations. It is the MongoDB {@link BookingStore}.
  *
  * @version 1.0
  * @since 2024-07-02
  * @author Andrea Moleri
  */
-class Transactions {
+class Transactions implements BookingStore {
 
-    private MongoClient mongoClient;
-    private MongoDatabase database;
-    private MongoCollection<Document> collection;
-    private Lock lock = new ReentrantLock();
-    private static final Logger logger = Logger.getLogger(Transactions.class.getName());
+    private MongoClient searchClient;
+    private MongoClient bookingClient;
+    private MongoCollection<Document> searchCollection;
+    private MongoCollection<Document> bookingCollection;
+    private final Lock[] lockStripes;
+    private LatencyMetrics metrics = new LatencyMetrics();
+    private OperationProfiles profiles = new OperationProfiles();
+    private AirportCache cache;
+    private AirportLocationIndex locationIndex;
+    private final MongoCollection<Document> holdsCollection;
+    private final Map<String, TimingWheel.Timeout> holdTimers = new ConcurrentHashMap<>();
+    private TimingWheel holdExpiry;
+    private ExecutorService holdReleases;
+    private volatile boolean holdsIndexed;
+
+    /**
+     * Number of lock stripes used by {@link #bookFlight} when none is specified.
+     */
+    private static final int DEFAULT_LOCK_STRIPES = 64;
+
+    /**
+     * Name of the collection, in the database of the airports, with one document per seat hold. Its TTL index
+     * deletes each document once the hold has expired.
+     */
+    public static final String HOLDS_COLLECTION = "holds";
+
+    /**
+     * Resolution of the expiry of the holds.
+     */
+    private static final long HOLD_TICK_MILLIS = 100;
+
+    private static final String SEAT_PATH = "Flights.$[flight].Seats.$[seat].";
 
     /**
      * Constructs a Transactions object with the specified MongoDB client, database name, and collection name.
@@ -41,122 +92,460 @@ class Transactions {
      * @param collectionName The name of the collection.
      */
     public Transactions(MongoClient mongoClient, String dbName, String collectionName) {
-        this.mongoClient = mongoClient;
-        this.database = mongoClient.getDatabase(dbName);
-        this.collection = database.getCollection(collectionName);
+        this(mongoClient, dbName, collectionName, DEFAULT_LOCK_STRIPES);
+    }
+
+    /**
+     * Constructs a Transactions object with a given number of lock stripes for bookings.
+     * Bookings on flights mapped to different stripes never wait on each other.
+     *
+     * @param mongoClient The MongoDB client instance.
+     * @param dbName The name of the database.
+     * @param collectionName The name of the collection.
+     * @param lockStripes The number of locks bookings are spread over, keyed by flight ID.
+     */
+    public Transactions(MongoClient mongoClient, String dbName, String collectionName, int lockStripes) {
+        this(mongoClient, mongoClient, dbName, collectionName, lockStripes);
+    }
+
+    /**
+     * Constructs a Transactions object that runs searches and bookings on separate clients.
+     *
+     * @param searchClient The MongoDB client used for flight searches and seat listings.
+     * @param bookingClient The MongoDB client used for bookings.
+     * @param dbName The name of the database.
+     * @param collectionName The name of the collection.
+     */
+    public Transactions(MongoClient searchClient, MongoClient bookingClient, String dbName, String collectionName) {
+        this(searchClient, bookingClient, dbName, collectionName, DEFAULT_LOCK_STRIPES);
+    }
+
+    /**
+     * Constructs a Transactions object that runs searches and bookings on separate clients, so that they
+     * do not compete for the same connection pool.
+     *
+     * @param searchClient The MongoDB client used for flight searches and seat listings.
+     * @param bookingClient The MongoDB client used for bookings.
+     * @param dbName The name of the database.
+     * @param collectionName The name of the collection.
+     * @param lockStripes The number of locks bookings are spread over, keyed by flight ID.
+     */
+    public Transactions(MongoClient searchClient, MongoClient bookingClient, String dbName, String collectionName, int lockStripes) {
+        if (lockStripes <= 0) {
+            throw new IllegalArgumentException("The number of lock stripes must be positive: " + lockStripes);
+        }
+        this.searchClient = searchClient;
+        this.bookingClient = bookingClient;
+        this.searchCollection = searchClient.getDatabase(dbName).getCollection(collectionName);
+        this.bookingCollection = bookingClient.getDatabase(dbName).getCollection(collectionName);
+        this.holdsCollection = bookingClient.getDatabase(dbName).getCollection(HOLDS_COLLECTION);
+        this.lockStripes = new Lock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            this.lockStripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Makes this instance record its operation and stage latencies into the given metrics, typically the
+     * ones of the {@link org.example.ConnectionRegistry} its clients come from, so that they are reported together with
+     * the command latencies.
+     *
+     * @param metrics The latency metrics to record into.
+     */
+    public void setLatencyMetrics(LatencyMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return The latency metrics this instance records into.
+     */
+    public LatencyMetrics getLatencyMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Makes this instance run every operation with the read preference, read concern and write concern of its
+     * profile, typically the ones of the {@link org.example.ConnectionRegistry} its clients come from.
+     * Until then the built-in profiles are used.
+     *
+     * @param profiles The operation profiles.
+     */
+    public void setOperationProfiles(OperationProfiles profiles) {
+        this.profiles = profiles;
+    }
+
+    /**
+     * Puts the given cache in front of the cluster for airport metadata, flight listings and seat availability.
+     * Bookings made through this instance invalidate the availability of their route, which is then loaded
+     * again from the primary: a secondary still behind the booking would otherwise put the seat back in the
+     * cache as vacant until the entry expires.
+     *
+     * @param cache The cache, or null to always read from the cluster.
+     */
+    public void setAirportCache(AirportCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Makes searches by distance look the nearby airports up in the given in-process index, instead of
+     * asking the {@code 2dsphere} index of the collection.
+     *
+     * @param locationIndex The index, or null to always query the collection.
+     */
+    public void setLocationIndex(AirportLocationIndex locationIndex) {
+        this.locationIndex = locationIndex;
+    }
+
+    /**
+     * Returns the lock guarding bookings on the given flight.
+     *
+     * @param flightID The ID of the flight.
+     * @return The lock stripe the flight is mapped to.
+     */
+    private Lock lockFor(String flightID) {
+        return lockStripes[Math.floorMod(flightID.hashCode(), lockStripes.length)];
     }
 
     /**
      * Retrieves flights departing from the specified airport.
+     * All destination airports are resolved with a single query instead of one lookup per flight.
      *
      * @param airportCode The IATA code of the departure airport.
      * @return A map containing flight details keyed by destination airport IATA code.
      */
+    @Override
     public Map<String, Map<String, String>> getFlightsFromAirport(String airportCode) {
+        long start = System.nanoTime();
+        Map<String, Map<String, String>> flightsMap = cache == null
+                ? findFlightsFromAirport(airportCode)
+                : new HashMap<>(cache.getRoutes(airportCode, this::findFlightsFromAirport));
+        metrics.recordSince(LatencyMetrics.SEARCH, start);
+        return flightsMap;
+    }
+
+    /**
+     * Queries the flights departing from the specified airport.
+     *
+     * @param airportCode The IATA code of the departure airport.
+     * @return A map containing flight details keyed by destination airport IATA code.
+     */
+    private Map<String, Map<String, String>> findFlightsFromAirport(String airportCode) {
         Map<String, Map<String, String>> flightsMap = new HashMap<>();
+        MongoCollection<Document> collection = profiles.apply(OperationProfiles.SEARCH, searchCollection);
 
-        FindIterable<Document> iterable = collection.find(Filters.eq("IATA_code", airportCode));
-
-        for (Document airportDoc : iterable) {
-            List<Document> flightsFromAirport = airportDoc.getList("Flights", Document.class);
-            for (Document flight : flightsFromAirport) {
-                ObjectId destinationId = flight.getObjectId("Destination");
-                Document destinationAirport = getAirportById(destinationId);
-                if (destinationAirport != null) {
-                    Map<String, String> flightDetails = new HashMap<>();
-                    flightDetails.put("ID", flight.getString("ID"));
-                    flightDetails.put("Name", destinationAirport.getString("Name"));
-                    flightDetails.put("IATA_code", destinationAirport.getString("IATA_code"));
-                    flightDetails.put("Country", destinationAirport.getString("Country"));
-                    flightsMap.put(destinationAirport.getString("IATA_code"), flightDetails);
-                }
+        List<Document> departureAirports = collection.find(Filters.eq("IATA_code", airportCode))
+                .projection(Projections.include("Flights.ID", "Flights.Destination"))
+                .into(new ArrayList<>());
+
+        // Collect every destination first, so that they can be resolved in one round trip
+        Set<ObjectId> destinationIds = new HashSet<>();
+        for (Document airportDoc : departureAirports) {
+            for (Document flight : airportDoc.getList("Flights", Document.class, Collections.emptyList())) {
+                destinationIds.add(flight.getObjectId("Destination"));
             }
         }
+        Map<ObjectId, Document> destinations = getAirportsByIds(collection, destinationIds);
+
+        for (Document airportDoc : departureAirports) {
+            addFlights(airportDoc, destinations, flightsMap);
+        }
 
         return flightsMap;
     }
 
     /**
-     * Retrieves the details of an airport by its ID.
+     * Adds the flights of a departure airport to a map keyed by destination airport IATA code.
+     *
+     * @param airportDoc The departure airport, with the ID and destination of its flights.
+     * @param destinations The destination airports, keyed by ObjectId.
+     * @param flightsMap The map the flight details are added to.
+     */
+    private static void addFlights(Document airportDoc, Map<ObjectId, Document> destinations, Map<String, Map<String, String>> flightsMap) {
+        for (Document flight : airportDoc.getList("Flights", Document.class, Collections.emptyList())) {
+            Document destinationAirport = destinations.get(flight.getObjectId("Destination"));
+            if (destinationAirport != null) {
+                Map<String, String> flightDetails = new HashMap<>();
+                flightDetails.put("ID", flight.getString("ID"));
+                flightDetails.put("Name", destinationAirport.getString("Name"));
+                flightDetails.put("IATA_code", destinationAirport.getString("IATA_code"));
+                flightDetails.put("Country", destinationAirport.getString("Country"));
+                flightsMap.put(destinationAirport.getString("IATA_code"), flightDetails);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the IATA codes of the airports within a distance of the given airport, the airport itself
+     * included, nearest first. The in-process location index answers if one is set; otherwise a single
+     * {@code $nearSphere} query is served by the {@code 2dsphere} index on {@code Location}.
      *
-     * @param airportId The ObjectId of the airport.
-     * @return The document containing airport details, or null if not found.
+     * @param airportCode The IATA code of the airport at the centre.
+     * @param radiusKm The maximum great-circle distance, in kilometres.
+     * @return The IATA codes, empty if the airport has no known position.
      */
-    private Document getAirportById(ObjectId airportId) {
-        return collection.find(Filters.eq("_id", airportId)).first();
+    public List<String> getAirportsNear(String airportCode, double radiusKm) {
+        List<String> codes = new ArrayList<>();
+        if (locationIndex != null) {
+            double[] centre = locationIndex.positionOf(airportCode);
+            if (centre != null) {
+                for (AirportLocationIndex.Match match : locationIndex.withinRadius(centre[0], centre[1], radiusKm)) {
+                    codes.add(match.iataCode());
+                }
+            }
+            return codes;
+        }
+
+        MongoCollection<Document> collection = profiles.apply(OperationProfiles.SEARCH, searchCollection);
+        Point centre = getLocation(collection, airportCode);
+        if (centre == null) {
+            return codes;
+        }
+        for (Document airport : collection.find(Filters.nearSphere(Modeling.LOCATION_FIELD, centre, radiusKm * 1000, null))
+                .projection(Projections.include("IATA_code"))) {
+            codes.add(airport.getString("IATA_code"));
+        }
+        return codes;
+    }
+
+    /**
+     * Retrieves the flights departing from every airport within a distance of the given airport, with one
+     * query for the departure airports and one for their destinations. The departure airports are found with
+     * the in-process location index if one is set, or by the {@code 2dsphere} index on {@code Location}.
+     *
+     * @param airportCode The IATA code of the airport at the centre.
+     * @param radiusKm The maximum great-circle distance, in kilometres.
+     * @return The flight details keyed by departure airport IATA code, then by destination airport IATA code.
+     */
+    public Map<String, Map<String, Map<String, String>>> getFlightsNear(String airportCode, double radiusKm) {
+        long start = System.nanoTime();
+        Map<String, Map<String, Map<String, String>>> flightsByDeparture = new HashMap<>();
+        MongoCollection<Document> collection = profiles.apply(OperationProfiles.SEARCH, searchCollection);
+
+        Bson nearby;
+        if (locationIndex != null) {
+            nearby = Filters.in("IATA_code", getAirportsNear(airportCode, radiusKm));
+        } else {
+            Point centre = getLocation(collection, airportCode);
+            if (centre == null) {
+                metrics.recordSince(LatencyMetrics.SEARCH, start);
+                return flightsByDeparture;
+            }
+            List<Double> coordinates = centre.getPosition().getValues();
+            nearby = Filters.geoWithinCenterSphere(Modeling.LOCATION_FIELD, coordinates.get(0), coordinates.get(1),
+                    radiusKm / GeoPoints.EARTH_RADIUS_KM);
+        }
+
+        List<Document> departureAirports = collection.find(nearby)
+                .projection(Projections.include("IATA_code", "Flights.ID", "Flights.Destination"))
+                .into(new ArrayList<>());
+        Set<ObjectId> destinationIds = new HashSet<>();
+        for (Document airportDoc : departureAirports) {
+            for (Document flight : airportDoc.getList("Flights", Document.class, Collections.emptyList())) {
+                destinationIds.add(flight.getObjectId("Destination"));
+            }
+        }
+        Map<ObjectId, Document> destinations = getAirportsByIds(collection, destinationIds);
+        for (Document airportDoc : departureAirports) {
+            addFlights(airportDoc, destinations,
+                    flightsByDeparture.computeIfAbsent(airportDoc.getString("IATA_code"), code -> new HashMap<>()));
+        }
+
+        metrics.recordSince(LatencyMetrics.SEARCH, start);
+        return flightsByDeparture;
+    }
+
+    /**
+     * Reads the GeoJSON position of an airport.
+     *
+     * @param collection The collection to query, with the profile of the calling operation.
+     * @param airportCode The IATA code of the airport.
+     * @return The position, or null if the airport is unknown or has none.
+     */
+    private static Point getLocation(MongoCollection<Document> collection, String airportCode) {
+        Document airport = collection.find(Filters.eq("IATA_code", airportCode))
+                .projection(Projections.include(Modeling.LOCATION_FIELD))
+                .first();
+        Document location = airport == null ? null : airport.get(Modeling.LOCATION_FIELD, Document.class);
+        if (location == null) {
+            return null;
+        }
+        List<Double> coordinates = location.getList("coordinates", Double.class);
+        return new Point(new Position(coordinates.get(0), coordinates.get(1)));
+    }
+
+    /**
+     * Retrieves the name, IATA code and country of the given airports, from the cache if there is one,
+     * querying the missing ones with a single {@code $in} query.
+     *
+     * @param collection The collection to query, with the profile of the calling operation.
+     * @param airportIds The ObjectIds of the airports.
+     * @return A map from airport ObjectId to the projected airport document.
+     */
+    private Map<ObjectId, Document> getAirportsByIds(MongoCollection<Document> collection, Collection<ObjectId> airportIds) {
+        if (cache != null) {
+            return cache.getAirports(airportIds, missing -> queryAirportsByIds(collection, missing));
+        }
+        return queryAirportsByIds(collection, airportIds);
+    }
+
+    /**
+     * Queries the name, IATA code and country of the given airports with a single {@code $in} query.
+     *
+     * @param collection The collection to query, with the profile of the calling operation.
+     * @param airportIds The ObjectIds of the airports.
+     * @return A map from airport ObjectId to the projected airport document.
+     */
+    private Map<ObjectId, Document> queryAirportsByIds(MongoCollection<Document> collection, Collection<ObjectId> airportIds) {
+        Map<ObjectId, Document> airports = new HashMap<>();
+        if (airportIds.isEmpty()) {
+            return airports;
+        }
+
+        FindIterable<Document> iterable = collection.find(Filters.in("_id", airportIds))
+                .projection(Projections.include("Name", "IATA_code", "Country"));
+        for (Document airport : iterable) {
+            airports.put(airport.getObjectId("_id"), airport);
+        }
+
+        return airports;
     }
 
     /**
      * Retrieves the list of available seats for a flight from a departure airport to an arrival airport.
+     * The arrival airport is resolved once by IATA code, and the seats are filtered on the server,
+     * so only the IDs of the vacant seats of the matching flight are transferred.
      *
      * @param departureAirportCode The IATA code of the departure airport.
      * @param arrivalAirportCode The IATA code of the arrival airport.
      * @return A list of seat IDs that are available.
      */
+    @Override
     public List<String> getAvailableSeats(String departureAirportCode, String arrivalAirportCode) {
+        long start = System.nanoTime();
+        // A cached listing is read with the booking profile, so that it includes every booking that invalidated it
+        List<String> availableSeatsList = cache == null
+                ? findAvailableSeats(profiles.apply(OperationProfiles.SEAT_LISTING, searchCollection),
+                        departureAirportCode, arrivalAirportCode)
+                : new ArrayList<>(cache.getAvailableSeats(departureAirportCode, arrivalAirportCode,
+                        () -> findAvailableSeats(profiles.apply(OperationProfiles.BOOKING, bookingCollection),
+                                departureAirportCode, arrivalAirportCode)));
+        metrics.recordSince(LatencyMetrics.SEAT_LISTING, start);
+        return availableSeatsList;
+    }
+
+    /**
+     * Queries the vacant seats of the first flight from a departure airport to an arrival airport. A held
+     * seat is only listed once its hold has expired.
+     *
+     * @param collection The collection to query, with the profile the listing is read with.
+     * @param departureAirportCode The IATA code of the departure airport.
+     * @param arrivalAirportCode The IATA code of the arrival airport.
+     * @return A list of seat IDs that are available.
+     */
+    private List<String> findAvailableSeats(MongoCollection<Document> collection, String departureAirportCode, String arrivalAirportCode) {
         List<String> availableSeatsList = new ArrayList<>();
 
-        Document departureAirport = collection.find(Filters.eq("IATA_code", departureAirportCode)).first();
-
-        if (departureAirport != null) {
-            List<Document> flightsFromDeparture = departureAirport.getList("Flights", Document.class);
-            for (Document flight : flightsFromDeparture) {
-                ObjectId destinationId = flight.getObjectId("Destination");
-                Document destinationAirport = getAirportById(destinationId);
-                if (destinationAirport != null && destinationAirport.getString("IATA_code").equals(arrivalAirportCode)) {
-                    List<Document> seats = flight.getList("Seats", Document.class);
-                    for (Document seat : seats) {
-                        if ("Vacant".equals(seat.getString("Status"))) {
-                            availableSeatsList.add(seat.getString("ID"));
-                        }
-                    }
-                    break;
-                }
-            }
+        Set<ObjectId> arrivalIds = cache == null
+                ? findAirportIds(collection, arrivalAirportCode)
+                : cache.getAirportIds(arrivalAirportCode, code -> findAirportIds(collection, code));
+        if (arrivalIds.isEmpty()) {
+            return availableSeatsList;
+        }
+
+        // Let the server pick the first flight to the arrival airport and reduce its seats to the vacant IDs
+        Document flightToArrival = new Document("$arrayElemAt", Arrays.asList(
+                new Document("$filter", new Document("input", "$Flights")
+                        .append("as", "flight")
+                        .append("cond", new Document("$in", Arrays.asList("$$flight.Destination", new ArrayList<>(arrivalIds))))),
+                0));
+        Document vacantSeatIds = new Document("$map", new Document("input",
+                new Document("$filter", new Document("input", "$flight.Seats")
+                        .append("as", "seat")
+                        .append("cond", new Document("$or", Arrays.asList(
+                                new Document("$eq", Arrays.asList("$$seat.Status", "Vacant")),
+                                new Document("$and", Arrays.asList(
+                                        new Document("$eq", Arrays.asList("$$seat.Status", "Held")),
+                                        new Document("$lt", Arrays.asList("$$seat.Hold_Expires", "$$NOW")))))))))
+                .append("as", "seat")
+                .append("in", "$$seat.ID"));
+
+        Document result = collection.aggregate(Arrays.asList(
+                Aggregates.match(Filters.eq("IATA_code", departureAirportCode)),
+                Aggregates.limit(1),
+                Aggregates.project(new Document("_id", 0).append("flight", flightToArrival)),
+                Aggregates.project(new Document("Seats", vacantSeatIds))
+        )).first();
+
+        if (result != null) {
+            availableSeatsList.addAll(result.getList("Seats", String.class, Collections.emptyList()));
         }
 
         return availableSeatsList;
     }
 
+    /**
+     * Queries the ObjectIds of the airports with the given IATA code.
+     *
+     * @param collection The collection to query, with the profile of the calling operation.
+     * @param airportCode The IATA code.
+     * @return The ObjectIds, empty if no airport has that code.
+     */
+    private Set<ObjectId> findAirportIds(MongoCollection<Document> collection, String airportCode) {
+        Set<ObjectId> airportIds = new HashSet<>();
+        for (Document airport : collection.find(Filters.eq("IATA_code", airportCode))
+                .projection(Projections.include("_id"))) {
+            airportIds.add(airport.getObjectId("_id"));
+        }
+        return airportIds;
+    }
+
     /**
      * Attempts to book a flight for a given person, ensuring thread safety and atomic updates in MongoDB.
+     * Only bookings on the same lock stripe are serialized in this process; across processes the
+     * conditional update, which only matches a seat that is still vacant, prevents double bookings.
+     * A held seat can be booked by the person holding it, which ends the hold, or by anyone once the hold
+     * has expired.
      *
      * @param flightID The ID of the flight to book.
      * @param seatID The ID of the seat to book.
      * @param person The person attempting to book the flight.
      * @return True if the booking is successful, false otherwise.
      */
+    @Override
     public boolean bookFlight(String flightID, String seatID, PeopleGenerator.Person person) {
+        long start = System.nanoTime();
+        String outcome = LatencyMetrics.BOOKING_REJECTED;
+        double seatPrice = -1;
+        MongoCollection<Document> collection = profiles.apply(OperationProfiles.BOOKING, bookingCollection);
+        Lock lock = lockFor(flightID);
         lock.lock();
         try {
-            Document flightDocument = collection.find(Filters.eq("Flights.ID", flightID)).first();
-            if (flightDocument == null) {
+            long stageStart = metrics.recordSince(LatencyMetrics.BOOKING_LOCK_WAIT, start);
+            // Decoded straight into the model, without building a Document tree per flight and seat
+            Airport airport = collection.withDocumentClass(Airport.class)
+                    .withCodecRegistry(AirportCodecProvider.REGISTRY)
+                    .find(Filters.eq("Flights.ID", flightID))
+                    .first();
+            metrics.recordSince(LatencyMetrics.BOOKING_FIND, stageStart);
+            if (airport == null) {
                 return false;
             }
 
-            List<Document> flights = flightDocument.getList("Flights", Document.class);
-            Document targetFlight = flights.stream()
-                    .filter(f -> flightID.equals(f.getString("ID")))
+            Flight targetFlight = airport.getFlights().stream()
+                    .filter(f -> flightID.equals(f.getId()))
                     .findFirst()
                     .orElse(null);
 
-            if (targetFlight == null) {
-                return false;
-            }
-
-            Object priceObject = targetFlight.get("Price_per_Person");
-            if (!(priceObject instanceof Number)) {
-                return false; // Handle case where price is not a valid number
+            if (targetFlight == null || targetFlight.getPricePerPerson() < 0) {
+                return false; // Handle case where the flight has no valid price
             }
-            double seatPrice = ((Number) priceObject).doubleValue(); // Convert seat price to double
+            seatPrice = targetFlight.getPricePerPerson();
 
-            List<Document> seats = targetFlight.getList("Seats", Document.class);
-            Document seat = seats.stream()
-                    .filter(s -> seatID.equals(s.getString("ID")) && "Vacant".equals(s.getString("Status")))
-                    .findFirst()
-                    .orElse(null);
+            Date now = new Date();
+            Seat seat = targetFlight.findAvailableSeat(seatID, person.getDocumentInfo(), now.getTime());
 
             if (seat == null) {
+                outcome = LatencyMetrics.BOOKING_CONFLICT;
                 return false;
             }
 
@@ -168,23 +557,19 @@ class Transactions {
             person.setOldBalance(person.getBalance());
             person.setDifference(seatPrice);
 
-            // Update seat status and person details
-            seat.put("Status", "Booked");
-            seat.put("Name", person.getName());
-            seat.put("Surname", person.getSurname());
-            seat.put("Document_Info", person.getDocumentInfo());
-            seat.put("Date_of_Birth", person.getDateOfBirth());
-            seat.put("Balance", person.getBalance() - seatPrice);
-
             // Update MongoDB document atomically
+            stageStart = System.nanoTime();
             UpdateResult result = collection.updateOne(
-                    Filters.and(
-                            Filters.eq("Flights.ID", flightID),
-                            Filters.eq("Flights.Seats.ID", seatID),
-                            Filters.eq("Flights.Seats.Status", "Vacant")
-                    ),
+                    Filters.elemMatch("Flights", Filters.and(
+                            Filters.eq("ID", flightID),
+                            Filters.elemMatch("Seats", Filters.and(
+                                    Filters.eq("ID", seatID),
+                                    Seat.availableTo("", person.getDocumentInfo(), now)
+                            ))
+                    )),
                     Updates.combine(
                             Updates.set("Flights.$[flight].Seats.$[seat].Status", "Booked"),
+                            Updates.unset("Flights.$[flight].Seats.$[seat].Hold_Expires"),
                             Updates.set("Flights.$[flight].Seats.$[seat].Name", person.getName()),
                             Updates.set("Flights.$[flight].Seats.$[seat].Surname", person.getSurname()),
                             Updates.set("Flights.$[flight].Seats.$[seat].Document_Info", person.getDocumentInfo()),
@@ -193,27 +578,395 @@ class Transactions {
                     ),
                     new UpdateOptions().arrayFilters(Arrays.asList(
                             Filters.eq("flight.ID", flightID),
-                            Filters.eq("seat.ID", seatID)
+                            Filters.and(Filters.eq("seat.ID", seatID), Seat.availableTo("seat.", person.getDocumentInfo(), now))
                     ))
             );
+            metrics.recordSince(LatencyMetrics.BOOKING_UPDATE, stageStart);
 
             if (result.getModifiedCount() == 1) {
+                if (seat.getStatus() == SeatStatus.HELD) {
+                    endHold(flightID, seatID, seat.getDocumentInfo());
+                }
+                if (cache != null) {
+                    cache.invalidateRoute(airport.getIataCode(), targetFlight.getDestination());
+                }
                 // Deduct seat price from person's balance
                 person.setBalance(person.getBalance() - seatPrice);
+                outcome = LatencyMetrics.BOOKING_SUCCESS;
                 return true;
             } else {
+                outcome = LatencyMetrics.BOOKING_CONFLICT;
+                return false;
+            }
+        } finally {
+            lock.unlock();
+            long elapsed = System.nanoTime() - start;
+            metrics.record(outcome, elapsed);
+            BookingAuditLog.record(flightID, seatID, outcome, seatPrice, elapsed);
+        }
+    }
+
+    /**
+     * Holds a seat for a person during checkout. The seat is set to {@code Held}, with the document of the
+     * person and the expiry of the hold, by a conditional update like the one of {@link #bookFlight}: it only
+     * matches a seat that is vacant, already held by the same person, whose hold is then extended, or whose
+     * hold has expired. Held seats are not listed by {@link #getAvailableSeats} until the hold expires.
+     *
+     * <p>The hold is released when it expires by a {@link TimingWheel} of this instance. It is also recorded
+     * in the {@value #HOLDS_COLLECTION} collection, whose TTL index deletes the record if this process stops
+     * before releasing the seat; the seat itself is then treated as vacant by every query once its
+     * {@code Hold_Expires} has passed, until {@link #restoreHolds()} or a booking releases it.
+     *
+     * @param flightID The ID of the flight.
+     * @param seatID The ID of the seat to hold.
+     * @param person The person the seat is held for.
+     * @param ttl How long the seat is held.
+     * @return True if the seat is held for the person, false otherwise.
+     */
+    public boolean holdSeat(String flightID, String seatID, PeopleGenerator.Person person, Duration ttl) {
+        Date now = new Date();
+        Date expires = new Date(now.getTime() + ttl.toMillis());
+        String holder = person.getDocumentInfo();
+        MongoCollection<Document> collection = profiles.apply(OperationProfiles.BOOKING, bookingCollection);
+        UpdateResult result = collection.updateOne(
+                Filters.elemMatch("Flights", Filters.and(
+                        Filters.eq("ID", flightID),
+                        Filters.elemMatch("Seats", Filters.and(Filters.eq("ID", seatID), Seat.availableTo("", holder, now)))
+                )),
+                Updates.combine(
+                        Updates.set(SEAT_PATH + "Status", "Held"),
+                        Updates.set(SEAT_PATH + "Document_Info", holder),
+                        Updates.set(SEAT_PATH + "Hold_Expires", expires)
+                ),
+                new UpdateOptions().arrayFilters(Arrays.asList(
+                        Filters.eq("flight.ID", flightID),
+                        Filters.and(Filters.eq("seat.ID", seatID), Seat.availableTo("seat.", holder, now))
+                ))
+        );
+        if (result.getModifiedCount() != 1) {
+            return false;
+        }
+
+        createHoldsIndex();
+        String key = holdKey(flightID, seatID);
+        holdsCollection.replaceOne(Filters.eq("_id", key),
+                new Document("_id", key)
+                        .append("Flight_ID", flightID)
+                        .append("Seat_ID", seatID)
+                        .append("Document_Info", holder)
+                        .append("Expires_At", expires),
+                new ReplaceOptions().upsert(true));
+        scheduleRelease(flightID, seatID, holder, expires.getTime() - now.getTime());
+        invalidateFlight(collection, flightID);
+        return true;
+    }
+
+    /**
+     * Releases the hold of a person on a seat before it expires, e.g. when checkout is abandoned.
+     *
+     * @param flightID The ID of the flight.
+     * @param seatID The ID of the held seat.
+     * @param person The person the seat is held for.
+     * @return True if the seat was held for the person and is now vacant.
+     */
+    public boolean releaseHold(String flightID, String seatID, PeopleGenerator.Person person) {
+        return releaseHold(flightID, seatID, person.getDocumentInfo(), false);
+    }
+
+    /**
+     * Schedules the release of the holds recorded in the {@value #HOLDS_COLLECTION} collection, e.g. the ones
+     * taken before a restart, and releases the seats whose hold has expired without being released.
+     *
+     * @return The number of holds scheduled.
+     */
+    public int restoreHolds() {
+        long now = System.currentTimeMillis();
+        int scheduled = 0;
+        for (Document hold : holdsCollection.find()) {
+            Date expires = hold.getDate("Expires_At");
+            scheduleRelease(hold.getString("Flight_ID"), hold.getString("Seat_ID"), hold.getString("Document_Info"),
+                    expires == null ? 0 : expires.getTime() - now);
+            scheduled++;
+        }
+
+        // Holds whose record the TTL index already removed
+        Date cutoff = new Date(now);
+        MongoCollection<Document> collection = profiles.apply(OperationProfiles.BOOKING, bookingCollection);
+        collection.updateMany(
+                Filters.elemMatch("Flights.Seats", Filters.and(Filters.eq("Status", "Held"), Filters.lt("Hold_Expires", cutoff))),
+                Updates.combine(
+                        Updates.set("Flights.$[].Seats.$[seat].Status", "Vacant"),
+                        Updates.set("Flights.$[].Seats.$[seat].Document_Info", ""),
+                        Updates.unset("Flights.$[].Seats.$[seat].Hold_Expires")
+                ),
+                new UpdateOptions().arrayFilters(List.of(
+                        Filters.and(Filters.eq("seat.Status", "Held"), Filters.lt("seat.Hold_Expires", cutoff))
+                ))
+        );
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+        return scheduled;
+    }
+
+    /**
+     * Sets a seat held by a person back to vacant.
+     *
+     * @param onlyExpired Whether to leave the seat held if its hold has been extended in the meantime.
+     * @return True if the seat was held for the person and is now vacant.
+     */
+    private boolean releaseHold(String flightID, String seatID, String holder, boolean onlyExpired) {
+        Date now = new Date();
+        Bson held = Filters.and(Filters.eq("Status", "Held"), Filters.eq("Document_Info", holder));
+        Bson heldSeat = Filters.and(Filters.eq("seat.ID", seatID), Filters.eq("seat.Status", "Held"),
+                Filters.eq("seat.Document_Info", holder));
+        if (onlyExpired) {
+            held = Filters.and(held, Filters.lte("Hold_Expires", now));
+            heldSeat = Filters.and(heldSeat, Filters.lte("seat.Hold_Expires", now));
+        }
+        MongoCollection<Document> collection = profiles.apply(OperationProfiles.BOOKING, bookingCollection);
+        UpdateResult result = collection.updateOne(
+                Filters.elemMatch("Flights", Filters.and(
+                        Filters.eq("ID", flightID),
+                        Filters.elemMatch("Seats", Filters.and(Filters.eq("ID", seatID), held))
+                )),
+                Updates.combine(
+                        Updates.set(SEAT_PATH + "Status", "Vacant"),
+                        Updates.set(SEAT_PATH + "Document_Info", ""),
+                        Updates.unset(SEAT_PATH + "Hold_Expires")
+                ),
+                new UpdateOptions().arrayFilters(Arrays.asList(Filters.eq("flight.ID", flightID), heldSeat))
+        );
+        if (result.getModifiedCount() != 1) {
+            return false;
+        }
+        if (onlyExpired) {
+            holdsCollection.deleteOne(Filters.and(Filters.eq("_id", holdKey(flightID, seatID)), Filters.eq("Document_Info", holder)));
+        } else {
+            endHold(flightID, seatID, holder);
+        }
+        invalidateFlight(collection, flightID);
+        return true;
+    }
+
+    /**
+     * Forgets a hold that ended before expiring: cancels its release and deletes its record.
+     */
+    private void endHold(String flightID, String seatID, String holder) {
+        TimingWheel.Timeout timeout = holdTimers.remove(holdKey(flightID, seatID));
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        holdsCollection.deleteOne(Filters.and(Filters.eq("_id", holdKey(flightID, seatID)), Filters.eq("Document_Info", holder)));
+    }
+
+    /**
+     * Schedules the release of a hold when it expires, replacing the release scheduled by an earlier hold
+     * of the same seat.
+     */
+    private void scheduleRelease(String flightID, String seatID, String holder, long delayMillis) {
+        String key = holdKey(flightID, seatID);
+        TimingWheel.Timeout timeout = holdExpiry().schedule(delayMillis, TimeUnit.MILLISECONDS, () -> {
+            holdTimers.computeIfPresent(key, (k, current) -> current.isPending() ? current : null);
+            releaseHold(flightID, seatID, holder, true);
+        });
+        TimingWheel.Timeout previous = holdTimers.put(key, timeout);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    /**
+     * Starts the timing wheel of the holds on first use, with its own thread for the releases, so that
+     * their round trips do not delay the clock of the wheel.
+     */
+    private synchronized TimingWheel holdExpiry() {
+        if (holdExpiry == null) {
+            holdReleases = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "hold-releases");
+                thread.setDaemon(true);
+                return thread;
+            });
+            holdExpiry = new TimingWheel(HOLD_TICK_MILLIS, TimeUnit.MILLISECONDS, holdReleases);
+        }
+        return holdExpiry;
+    }
+
+    /**
+     * Creates the TTL index of the {@value #HOLDS_COLLECTION} collection, once per instance.
+     */
+    private void createHoldsIndex() {
+        if (!holdsIndexed) {
+            holdsCollection.createIndex(Indexes.ascending("Expires_At"), new IndexOptions().expireAfter(0L, TimeUnit.SECONDS));
+            holdsIndexed = true;
+        }
+    }
+
+    /**
+     * Invalidates the cached availability of the route of a flight, if there is a cache.
+     */
+    private void invalidateFlight(MongoCollection<Document> collection, String flightID) {
+        if (cache == null) {
+            return;
+        }
+        Document airport = collection.find(Filters.eq("Flights.ID", flightID))
+                .projection(Projections.fields(
+                        Projections.include("IATA_code"),
+                        Projections.elemMatch("Flights", Filters.eq("ID", flightID))))
+                .first();
+        if (airport != null) {
+            for (Document flight : airport.getList("Flights", Document.class, Collections.emptyList())) {
+                cache.invalidateRoute(airport.getString("IATA_code"), flight.getObjectId("Destination"));
+            }
+        }
+    }
+
+    private static String holdKey(String flightID, String seatID) {
+        return flightID + "/" + seatID;
+    }
+
+    /**
+     * Books several seats of the same flight, one per person, as a single unit: either every seat is booked
+     * or none is. All seats are written by one conditional update that only matches when every requested
+     * seat is still available to its person, with one array filter per seat: as in {@link #bookFlight}, a
+     * held seat can be booked by the person holding it, which ends the hold, or by anyone once it has expired.
+     *
+     * @param flightID The ID of the flight to book.
+     * @param seatIDs The IDs of the seats to book, all distinct.
+     * @param people The people to book, where the i-th person gets the i-th seat.
+     * @return True if every seat was booked, false if none was.
+     */
+    @Override
+    public boolean bookSeats(String flightID, List<String> seatIDs, List<PeopleGenerator.Person> people) {
+        if (seatIDs.size() != people.size()) {
+            throw new IllegalArgumentException("Expected one person per seat, got " + seatIDs.size() + " seats and " + people.size() + " people");
+        }
+        if (seatIDs.isEmpty() || new HashSet<>(seatIDs).size() != seatIDs.size()) {
+            return false;
+        }
+
+        long start = System.nanoTime();
+        String outcome = LatencyMetrics.BOOKING_REJECTED;
+        double seatPrice = -1;
+        MongoCollection<Document> collection = profiles.apply(OperationProfiles.BOOKING, bookingCollection);
+        Lock lock = lockFor(flightID);
+        lock.lock();
+        try {
+            long stageStart = metrics.recordSince(LatencyMetrics.BOOKING_LOCK_WAIT, start);
+            Airport airport = collection.withDocumentClass(Airport.class)
+                    .withCodecRegistry(AirportCodecProvider.REGISTRY)
+                    .find(Filters.eq("Flights.ID", flightID))
+                    .projection(Projections.fields(
+                            Projections.include("IATA_code"),
+                            Projections.elemMatch("Flights", Filters.eq("ID", flightID))))
+                    .first();
+            metrics.recordSince(LatencyMetrics.BOOKING_FIND, stageStart);
+            if (airport == null || airport.getFlights().isEmpty()) {
                 return false;
             }
+            Flight targetFlight = airport.getFlights().get(0);
+
+            if (targetFlight.getPricePerPerson() < 0) {
+                return false; // Handle case where the flight has no valid price
+            }
+            seatPrice = targetFlight.getPricePerPerson();
+
+            // Fail early, without an update, if a seat is already taken or a person cannot pay
+            Date now = new Date();
+            List<Seat> seats = new ArrayList<>(seatIDs.size());
+            for (int i = 0; i < seatIDs.size(); i++) {
+                Seat seat = targetFlight.findAvailableSeat(seatIDs.get(i), people.get(i).getDocumentInfo(), now.getTime());
+                if (seat == null) {
+                    outcome = LatencyMetrics.BOOKING_CONFLICT;
+                    return false;
+                }
+                seats.add(seat);
+            }
+            for (PeopleGenerator.Person person : people) {
+                if (person.getBalance() < seatPrice) {
+                    return false;
+                }
+            }
+
+            List<Bson> seatConditions = new ArrayList<>();
+            List<Bson> updates = new ArrayList<>();
+            List<Bson> arrayFilters = new ArrayList<>();
+            arrayFilters.add(Filters.eq("flight.ID", flightID));
+            for (int i = 0; i < seatIDs.size(); i++) {
+                String seatID = seatIDs.get(i);
+                PeopleGenerator.Person person = people.get(i);
+                String seatPath = "Flights.$[flight].Seats.$[seat" + i + "].";
+
+                seatConditions.add(Filters.elemMatch("Seats", Filters.and(
+                        Filters.eq("ID", seatID),
+                        Seat.availableTo("", person.getDocumentInfo(), now)
+                )));
+                updates.add(Updates.set(seatPath + "Status", "Booked"));
+                updates.add(Updates.unset(seatPath + "Hold_Expires"));
+                updates.add(Updates.set(seatPath + "Name", person.getName()));
+                updates.add(Updates.set(seatPath + "Surname", person.getSurname()));
+                updates.add(Updates.set(seatPath + "Document_Info", person.getDocumentInfo()));
+                updates.add(Updates.set(seatPath + "Date_of_Birth", person.getDateOfBirth()));
+                updates.add(Updates.set(seatPath + "Balance", person.getBalance() - seatPrice));
+                arrayFilters.add(Filters.and(Filters.eq("seat" + i + ".ID", seatID),
+                        Seat.availableTo("seat" + i + ".", person.getDocumentInfo(), now)));
+            }
+            seatConditions.add(0, Filters.eq("ID", flightID));
+
+            // Update MongoDB document atomically: the filter only matches if every seat is still available
+            stageStart = System.nanoTime();
+            UpdateResult result = collection.updateOne(
+                    Filters.elemMatch("Flights", Filters.and(seatConditions)),
+                    Updates.combine(updates),
+                    new UpdateOptions().arrayFilters(arrayFilters)
+            );
+            metrics.recordSince(LatencyMetrics.BOOKING_UPDATE, stageStart);
+
+            if (result.getModifiedCount() != 1) {
+                outcome = LatencyMetrics.BOOKING_CONFLICT;
+                return false;
+            }
+
+            for (Seat seat : seats) {
+                if (seat.getStatus() == SeatStatus.HELD) {
+                    endHold(flightID, seat.getId(), seat.getDocumentInfo());
+                }
+            }
+            if (cache != null) {
+                cache.invalidateRoute(airport.getIataCode(), targetFlight.getDestination());
+            }
+            for (PeopleGenerator.Person person : people) {
+                person.setOldBalance(person.getBalance());
+                person.setDifference(seatPrice);
+                person.setBalance(person.getBalance() - seatPrice);
+            }
+            outcome = LatencyMetrics.BOOKING_SUCCESS;
+            return true;
         } finally {
             lock.unlock();
+            long elapsed = System.nanoTime() - start;
+            metrics.record(outcome, elapsed);
+            for (String seatID : seatIDs) {
+                BookingAuditLog.record(flightID, seatID, outcome, seatPrice, elapsed);
+            }
         }
     }
 
     /**
-     * Closes the MongoDB client connection.
+     * Stops releasing holds and closes the MongoDB client connections.
      */
+    @Override
     public void close() {
-        mongoClient.close();
+        synchronized (this) {
+            if (holdExpiry != null) {
+                holdExpiry.close();
+                holdReleases.shutdown();
+            }
+        }
+        searchClient.close();
+        if (bookingClient != searchClient) {
+            bookingClient.close();
+        }
     }
 
 }
\ No newline at end of file
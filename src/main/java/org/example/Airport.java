@@ -33,6 +33,50 @@ public class Airport {
         this.flights = flights;
     }
 
+    public String getGeoPoint() {
+        return geoPoint;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getNameEn() {
+        return nameEn;
+    }
+
+    public String getNameFr() {
+        return nameFr;
+    }
+
+    public String getIataCode() {
+        return iataCode;
+    }
+
+    public String getIcaoCode() {
+        return icaoCode;
+    }
+
+    public String getOperator() {
+        return operator;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public String getCountryCode() {
+        return countryCode;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public List<Flight> getFlights() {
+        return flights;
+    }
+
     @Override
     public String toString() {
         return "Airport{" +
@@ -51,8 +95,12 @@ public class Airport {
     }
 
     public Document toDocument() {
-        Document document = new Document("geoPoint", this.geoPoint)
-                .append("name", this.name)
+        Document document = new Document("geoPoint", this.geoPoint);
+        Document location = GeoPoints.toGeoJson(this.geoPoint);
+        if (location != null) {
+            document.append(MongoDBShardedConnection.LOCATION_FIELD, location);
+        }
+        document.append("name", this.name)
                 .append("nameEn", this.nameEn)
                 .append("nameFr", this.nameFr)
                 .append("iataCode", this.iataCode)
@@ -0,0 +1,220 @@
+package org.example;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The {@code AirportCache} class keeps in process what {@code Transactions} would otherwise read from the
+ * cluster on every call:
+ * <ul>
+ * <li>{@value #AIRPORTS}: the name, IATA code and country of airports, by {@code _id}.
+ * <li>{@value #AIRPORT_IDS}: the {@code _id}s of the airports with a given IATA code.
+ * <li>{@value #ROUTES}: the flights departing from an airport, as returned by {@code getFlightsFromAirport}.
+ * <li>{@value #SEATS}: the vacant seats of a route, as returned by {@code getAvailableSeats}.
+ * </ul>
+ *
+ * <p>Every cache is bounded in size and entries expire a fixed time after they were loaded. When a cache is
+ * full, Caffeine's W-TinyLFU policy decides what to evict from how often keys were recently requested, so
+ * that a burst of one-off lookups cannot push out the hot airports. Airport metadata almost never changes and
+ * is kept for long; seat availability changes with every booking and is invalidated by the bookings of this
+ * process, with a short expiry bounding how stale bookings made elsewhere can leave it. The loader of seat
+ * availability should read from the primary, or an invalidated entry may be loaded again from a secondary
+ * that has not replicated the booking yet and stay stale until it expires.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class AirportCache {
+
+    /**
+     * Name of the cache of airport metadata by {@code _id}.
+     */
+    public static final String AIRPORTS = "airports";
+
+    /**
+     * Name of the cache of airport {@code _id}s by IATA code.
+     */
+    public static final String AIRPORT_IDS = "airportIds";
+
+    /**
+     * Name of the cache of flight listings by departure airport.
+     */
+    public static final String ROUTES = "routes";
+
+    /**
+     * Name of the cache of vacant seats by route.
+     */
+    public static final String SEATS = "seats";
+
+    private static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+    private static final Duration DEFAULT_METADATA_TTL = Duration.ofHours(1);
+    private static final Duration DEFAULT_ROUTES_TTL = Duration.ofMinutes(5);
+    private static final Duration DEFAULT_SEATS_TTL = Duration.ofSeconds(5);
+
+    private final Cache<ObjectId, Document> airports;
+    private final Cache<String, Set<ObjectId>> airportIds;
+    private final Cache<String, Map<String, Map<String, String>>> routes;
+    private final Cache<Route, List<String>> seats;
+
+    /**
+     * A route between two airports, by IATA code.
+     *
+     * @param departure the IATA code of the departure airport.
+     * @param arrival the IATA code of the arrival airport.
+     */
+    private record Route(String departure, String arrival) {
+    }
+
+    /**
+     * Constructs a cache with the default sizes and expiries.
+     */
+    public AirportCache() {
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_METADATA_TTL, DEFAULT_ROUTES_TTL, DEFAULT_SEATS_TTL);
+    }
+
+    /**
+     * Constructs a cache with the given bounds.
+     *
+     * @param maximumSize the maximum number of entries of each cache.
+     * @param metadataTtl how long airport metadata and IATA code lookups are kept.
+     * @param routesTtl how long flight listings are kept.
+     * @param seatsTtl how long seat availability is kept if no booking of this process invalidates it.
+     */
+    public AirportCache(long maximumSize, Duration metadataTtl, Duration routesTtl, Duration seatsTtl) {
+        this.airports = build(maximumSize, metadataTtl);
+        this.airportIds = build(maximumSize, metadataTtl);
+        this.routes = build(maximumSize, routesTtl);
+        this.seats = build(maximumSize, seatsTtl);
+    }
+
+    /**
+     * Builds a size-bounded cache whose entries expire after a fixed time, with statistics enabled.
+     *
+     * @param maximumSize the maximum number of entries.
+     * @param ttl how long entries are kept after being loaded.
+     * @return the cache.
+     */
+    private static <K, V> Cache<K, V> build(long maximumSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the metadata of the given airports, loading the missing ones with a single call.
+     *
+     * @param ids the {@code _id}s of the airports.
+     * @param loader loads the metadata of the airports not in the cache; airports it does not return are
+     *               left out of the result.
+     * @return the metadata keyed by {@code _id}.
+     */
+    public Map<ObjectId, Document> getAirports(Collection<ObjectId> ids, Function<Set<ObjectId>, Map<ObjectId, Document>> loader) {
+        return airports.getAll(ids, missing -> loader.apply(Set.copyOf(missing)));
+    }
+
+    /**
+     * Returns the {@code _id}s of the airports with the given IATA code.
+     *
+     * @param iataCode the IATA code.
+     * @param loader queries the {@code _id}s on a miss.
+     * @return the {@code _id}s, empty if no airport has that code.
+     */
+    public Set<ObjectId> getAirportIds(String iataCode, Function<String, Set<ObjectId>> loader) {
+        return airportIds.get(iataCode, code -> Set.copyOf(loader.apply(code)));
+    }
+
+    /**
+     * Returns the flights departing from the given airport.
+     *
+     * @param departure the IATA code of the departure airport.
+     * @param loader queries the flights on a miss.
+     * @return the flight details keyed by destination IATA code, unmodifiable.
+     */
+    public Map<String, Map<String, String>> getRoutes(String departure, Function<String, Map<String, Map<String, String>>> loader) {
+        return routes.get(departure, code -> {
+            Map<String, Map<String, String>> flights = new LinkedHashMap<>();
+            loader.apply(code).forEach((destination, details) -> flights.put(destination, Map.copyOf(details)));
+            return Collections.unmodifiableMap(flights);
+        });
+    }
+
+    /**
+     * Returns the vacant seats of the given route.
+     *
+     * @param departure the IATA code of the departure airport.
+     * @param arrival the IATA code of the arrival airport.
+     * @param loader queries the seats on a miss.
+     * @return the IDs of the vacant seats, unmodifiable.
+     */
+    public List<String> getAvailableSeats(String departure, String arrival, Supplier<List<String>> loader) {
+        return seats.get(new Route(departure, arrival), route -> List.copyOf(loader.get()));
+    }
+
+    /**
+     * Drops the seat availability of a route whose seats were just booked. If the destination is not cached,
+     * and therefore its IATA code is unknown, the availability of every route from the departure airport is dropped.
+     *
+     * @param departure the IATA code of the departure airport.
+     * @param destination the {@code _id} of the destination airport.
+     */
+    public void invalidateRoute(String departure, ObjectId destination) {
+        Document arrival = destination == null ? null : airports.getIfPresent(destination);
+        if (arrival != null) {
+            seats.invalidate(new Route(departure, arrival.getString("IATA_code")));
+        } else {
+            seats.asMap().keySet().removeIf(route -> route.departure().equals(departure));
+        }
+    }
+
+    /**
+     * Drops every cached entry, e.g. after the airports were reloaded.
+     */
+    public void invalidateAll() {
+        airports.invalidateAll();
+        airportIds.invalidateAll();
+        routes.invalidateAll();
+        seats.invalidateAll();
+    }
+
+    /**
+     * Returns the hit, miss and eviction counters of every cache, cumulative since its creation.
+     *
+     * @return the statistics keyed by cache name.
+     */
+    public Map<String, CacheStats> stats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        stats.put(AIRPORTS, airports.stats());
+        stats.put(AIRPORT_IDS, airportIds.stats());
+        stats.put(ROUTES, routes.stats());
+        stats.put(SEATS, seats.stats());
+        return stats;
+    }
+
+    /**
+     * Formats hits, misses, hit rate and evictions of every cache.
+     *
+     * @return the report, one cache per line.
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        stats().forEach((name, stats) -> sb.append(String.format("%-10s hits=%-8d misses=%-8d hitRate=%5.1f%% evictions=%d%n",
+                name, stats.hitCount(), stats.missCount(), stats.hitRate() * 100, stats.evictionCount())));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,116 @@
+package org.example;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code AirportCodec} class writes an {@link Airport}, flights and seats included, straight to a
+ * {@link BsonWriter} with the field names of {@link Airport#toDocument()}, GeoJSON location included, and
+ * reads one straight from a {@link BsonReader}, without building intermediate {@code Document} trees.
+ * Reading also accepts the field names written by {@code Modeling}, e.g. {@code IATA_code} and {@code Flights},
+ * so that the same codec serves the sharded collection, the airport collection and the JSON export.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class AirportCodec implements Codec<Airport> {
+
+    private final FlightCodec flightCodec;
+
+    /**
+     * Constructs a codec that encodes and decodes flights with the given codec.
+     *
+     * @param flightCodec the codec of the flights.
+     */
+    public AirportCodec(FlightCodec flightCodec) {
+        this.flightCodec = flightCodec;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Airport airport, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        CodecSupport.writeString(writer, "geoPoint", airport.getGeoPoint());
+        double[] point = GeoPoints.parse(airport.getGeoPoint());
+        if (point != null) {
+            writer.writeStartDocument(MongoDBShardedConnection.LOCATION_FIELD);
+            writer.writeString("type", "Point");
+            writer.writeStartArray("coordinates");
+            writer.writeDouble(point[1]);
+            writer.writeDouble(point[0]);
+            writer.writeEndArray();
+            writer.writeEndDocument();
+        }
+        CodecSupport.writeString(writer, "name", airport.getName());
+        CodecSupport.writeString(writer, "nameEn", airport.getNameEn());
+        CodecSupport.writeString(writer, "nameFr", airport.getNameFr());
+        CodecSupport.writeString(writer, "iataCode", airport.getIataCode());
+        CodecSupport.writeString(writer, "icaoCode", airport.getIcaoCode());
+        CodecSupport.writeString(writer, "operator", airport.getOperator());
+        CodecSupport.writeString(writer, "country", airport.getCountry());
+        CodecSupport.writeString(writer, "countryCode", airport.getCountryCode());
+        writer.writeInt32("size", airport.getSize());
+        writer.writeStartArray("flights");
+        if (airport.getFlights() != null) {
+            for (Flight flight : airport.getFlights()) {
+                encoderContext.encodeWithChildContext(flightCodec, writer, flight);
+            }
+        }
+        writer.writeEndArray();
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Airport decode(BsonReader reader, DecoderContext decoderContext) {
+        String geoPoint = null;
+        String name = null;
+        String nameEn = null;
+        String nameFr = null;
+        String iataCode = null;
+        String icaoCode = null;
+        String operator = null;
+        String country = null;
+        String countryCode = null;
+        int size = 0;
+        List<Flight> flights = new ArrayList<>();
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "geoPoint", "Geo_Point" -> geoPoint = CodecSupport.readString(reader);
+                case "name", "Name" -> name = CodecSupport.readString(reader);
+                case "nameEn", "Name_(en)" -> nameEn = CodecSupport.readString(reader);
+                case "nameFr", "Name_(fr)" -> nameFr = CodecSupport.readString(reader);
+                case "iataCode", "IATA_code" -> iataCode = CodecSupport.readString(reader);
+                case "icaoCode", "ICAO_code" -> icaoCode = CodecSupport.readString(reader);
+                case "operator", "Operator" -> operator = CodecSupport.readString(reader);
+                case "country", "Country" -> country = CodecSupport.readString(reader);
+                case "countryCode", "Country_code" -> countryCode = CodecSupport.readString(reader);
+                case "size", "Size" -> size = CodecSupport.readInt(reader, 0);
+                case "flights", "Flights" -> {
+                    reader.readStartArray();
+                    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                        flights.add(decoderContext.decodeWithChildContext(flightCodec, reader));
+                    }
+                    reader.readEndArray();
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new Airport(geoPoint, name, nameEn, nameFr, iataCode, icaoCode, operator, country, countryCode, size, flights);
+    }
+
+    @Override
+    public Class<Airport> getEncoderClass() {
+        return Airport.class;
+    }
+}
@@ -0,0 +1,51 @@
+package org.example;
+
+import com.mongodb.MongoClientSettings;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecProvider;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+
+/**
+ * The {@code AirportCodecProvider} class provides the {@link AirportCodec}, {@link FlightCodec} and
+ * {@link SeatCodec}, so that collections can be opened as {@code MongoCollection<Airport>}:
+ *
+ * <pre>
+ * {@code
+ * MongoCollection<Airport> airports = collection.withDocumentClass(Airport.class)
+ *         .withCodecRegistry(AirportCodecProvider.REGISTRY);
+ * }
+ * </pre>
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class AirportCodecProvider implements CodecProvider {
+
+    /**
+     * The driver's default codecs, followed by the airport codecs.
+     */
+    public static final CodecRegistry REGISTRY = CodecRegistries.fromRegistries(
+            MongoClientSettings.getDefaultCodecRegistry(),
+            CodecRegistries.fromProviders(new AirportCodecProvider()));
+
+    private final SeatCodec seatCodec = new SeatCodec();
+    private final FlightCodec flightCodec = new FlightCodec(seatCodec);
+    private final AirportCodec airportCodec = new AirportCodec(flightCodec);
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Codec<T> get(Class<T> clazz, CodecRegistry registry) {
+        if (clazz == Airport.class) {
+            return (Codec<T>) airportCodec;
+        }
+        if (clazz == Flight.class) {
+            return (Codec<T>) flightCodec;
+        }
+        if (clazz == Seat.class) {
+            return (Codec<T>) seatCodec;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,303 @@
+package org.example;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Projections;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code AirportLocationIndex} class is an in-process k-d tree over the positions of the airports, for
+ * nearest-airport and within-radius lookups that are too frequent to send to the {@code 2dsphere} index
+ * every time.
+ *
+ * <p>Positions are stored as points on the unit sphere in three dimensions, where the straight-line (chord)
+ * distance grows with the great-circle distance, so that the usual Euclidean k-d tree pruning is exact and
+ * needs no special case at the poles or the antimeridian. The tree is implicit: the airports are reordered
+ * so that the median of every subrange is its root, and no node objects are allocated.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class AirportLocationIndex {
+
+    private final String[] codes;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[][] xyz;
+    private final Map<String, Integer> indexByCode = new HashMap<>();
+
+    /**
+     * An airport found by a lookup.
+     *
+     * @param iataCode the IATA code of the airport.
+     * @param latitude the latitude in degrees.
+     * @param longitude the longitude in degrees.
+     * @param distanceKm the great-circle distance from the searched point, in kilometres.
+     */
+    public record Match(String iataCode, double latitude, double longitude, double distanceKm) {
+    }
+
+    /**
+     * Builds the index from parallel arrays of codes and positions in degrees.
+     *
+     * @param iataCodes the IATA codes of the airports.
+     * @param latitudes the latitudes.
+     * @param longitudes the longitudes.
+     */
+    public AirportLocationIndex(String[] iataCodes, double[] latitudes, double[] longitudes) {
+        if (iataCodes.length != latitudes.length || iataCodes.length != longitudes.length) {
+            throw new IllegalArgumentException("Expected one position per airport");
+        }
+        int n = iataCodes.length;
+        Integer[] order = new Integer[n];
+        double[][] points = new double[n][];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+            points[i] = toUnitVector(latitudes[i], longitudes[i]);
+        }
+        build(order, points, 0, n, 0);
+
+        codes = new String[n];
+        this.latitudes = new double[n];
+        this.longitudes = new double[n];
+        xyz = new double[n][];
+        for (int i = 0; i < n; i++) {
+            codes[i] = iataCodes[order[i]];
+            this.latitudes[i] = latitudes[order[i]];
+            this.longitudes[i] = longitudes[order[i]];
+            xyz[i] = points[order[i]];
+            indexByCode.putIfAbsent(codes[i], i);
+        }
+    }
+
+    /**
+     * Loads the positions of every airport with a readable {@code Geo_Point} from an airport collection.
+     *
+     * @param collection the airport collection, in the shape written by {@code Modeling}.
+     * @return the index.
+     */
+    public static AirportLocationIndex load(MongoCollection<Document> collection) {
+        List<String> codes = new ArrayList<>();
+        List<double[]> points = new ArrayList<>();
+        for (Document airport : collection.find().projection(Projections.include("IATA_code", "Geo_Point"))) {
+            double[] point = GeoPoints.parse(airport.getString("Geo_Point"));
+            if (point != null && airport.getString("IATA_code") != null) {
+                codes.add(airport.getString("IATA_code"));
+                points.add(point);
+            }
+        }
+        double[] latitudes = new double[points.size()];
+        double[] longitudes = new double[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            latitudes[i] = points.get(i)[0];
+            longitudes[i] = points.get(i)[1];
+        }
+        return new AirportLocationIndex(codes.toArray(new String[0]), latitudes, longitudes);
+    }
+
+    /**
+     * @return the number of airports in the index.
+     */
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * Finds the position of an airport.
+     *
+     * @param iataCode the IATA code.
+     * @return latitude and longitude in degrees, or null if the airport is not indexed.
+     */
+    public double[] positionOf(String iataCode) {
+        Integer i = indexByCode.get(iataCode);
+        return i == null ? null : new double[]{latitudes[i], longitudes[i]};
+    }
+
+    /**
+     * Finds every airport within a distance of a point.
+     *
+     * @param latitude the latitude of the point, in degrees.
+     * @param longitude the longitude of the point, in degrees.
+     * @param radiusKm the maximum great-circle distance, in kilometres.
+     * @return the airports, nearest first.
+     */
+    public List<Match> withinRadius(double latitude, double longitude, double radiusKm) {
+        double[] query = toUnitVector(latitude, longitude);
+        double maxChord = chord(radiusKm);
+        List<Integer> found = new ArrayList<>();
+        collectWithin(query, maxChord * maxChord, 0, codes.length, 0, found);
+        return toMatches(found, latitude, longitude);
+    }
+
+    /**
+     * Finds the airports nearest to a point.
+     *
+     * @param latitude the latitude of the point, in degrees.
+     * @param longitude the longitude of the point, in degrees.
+     * @param count the number of airports to return.
+     * @return at most {@code count} airports, nearest first.
+     */
+    public List<Match> nearest(double latitude, double longitude, int count) {
+        if (count <= 0 || codes.length == 0) {
+            return new ArrayList<>();
+        }
+        double[] query = toUnitVector(latitude, longitude);
+        // Bounded max-heap of the best candidates, by squared chord
+        int[] heap = new int[Math.min(count, codes.length)];
+        double[] heapDistance = new double[heap.length];
+        int[] size = {0};
+        collectNearest(query, 0, codes.length, 0, heap, heapDistance, size);
+
+        List<Integer> found = new ArrayList<>(size[0]);
+        for (int i = 0; i < size[0]; i++) {
+            found.add(heap[i]);
+        }
+        return toMatches(found, latitude, longitude);
+    }
+
+    /**
+     * Adds the airports of a subtree that lie within the squared chord of the query point.
+     */
+    private void collectWithin(double[] query, double maxSquared, int from, int to, int axis, List<Integer> found) {
+        if (from >= to) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        if (squaredDistance(xyz[mid], query) <= maxSquared) {
+            found.add(mid);
+        }
+        double delta = query[axis] - xyz[mid][axis];
+        int next = (axis + 1) % 3;
+        if (delta <= 0 || delta * delta <= maxSquared) {
+            collectWithin(query, maxSquared, from, mid, next, found);
+        }
+        if (delta >= 0 || delta * delta <= maxSquared) {
+            collectWithin(query, maxSquared, mid + 1, to, next, found);
+        }
+    }
+
+    /**
+     * Offers the airports of a subtree to the bounded heap, visiting the side of the query point first.
+     */
+    private void collectNearest(double[] query, int from, int to, int axis, int[] heap, double[] heapDistance, int[] size) {
+        if (from >= to) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        offer(mid, squaredDistance(xyz[mid], query), heap, heapDistance, size);
+
+        double delta = query[axis] - xyz[mid][axis];
+        int next = (axis + 1) % 3;
+        boolean lowerFirst = delta <= 0;
+        if (lowerFirst) {
+            collectNearest(query, from, mid, next, heap, heapDistance, size);
+        } else {
+            collectNearest(query, mid + 1, to, next, heap, heapDistance, size);
+        }
+        // Visit the far side only if it may hold a point closer than the worst candidate kept
+        if (size[0] < heap.length || delta * delta < heapDistance[0]) {
+            if (lowerFirst) {
+                collectNearest(query, mid + 1, to, next, heap, heapDistance, size);
+            } else {
+                collectNearest(query, from, mid, next, heap, heapDistance, size);
+            }
+        }
+    }
+
+    /**
+     * Keeps a candidate in the bounded max-heap if it is closer than the farthest one kept.
+     */
+    private static void offer(int point, double distance, int[] heap, double[] heapDistance, int[] size) {
+        int i;
+        if (size[0] < heap.length) {
+            i = size[0]++;
+            while (i > 0 && heapDistance[(i - 1) >>> 1] < distance) {
+                heap[i] = heap[(i - 1) >>> 1];
+                heapDistance[i] = heapDistance[(i - 1) >>> 1];
+                i = (i - 1) >>> 1;
+            }
+        } else if (distance < heapDistance[0]) {
+            i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size[0]) {
+                    break;
+                }
+                if (child + 1 < size[0] && heapDistance[child + 1] > heapDistance[child]) {
+                    child++;
+                }
+                if (heapDistance[child] <= distance) {
+                    break;
+                }
+                heap[i] = heap[child];
+                heapDistance[i] = heapDistance[child];
+                i = child;
+            }
+        } else {
+            return;
+        }
+        heap[i] = point;
+        heapDistance[i] = distance;
+    }
+
+    /**
+     * Converts positions in the tree to matches sorted by great-circle distance from the query point.
+     */
+    private List<Match> toMatches(List<Integer> points, double latitude, double longitude) {
+        List<Match> matches = new ArrayList<>(points.size());
+        for (int i : points) {
+            matches.add(new Match(codes[i], latitudes[i], longitudes[i],
+                    GeoPoints.distanceKm(latitude, longitude, latitudes[i], longitudes[i])));
+        }
+        matches.sort((a, b) -> Double.compare(a.distanceKm(), b.distanceKm()));
+        return matches;
+    }
+
+    /**
+     * Reorders a range of airports so that its median along the axis is in the middle, the smaller ones
+     * before it and the larger ones after it, then does the same for both halves along the next axis.
+     */
+    private static void build(Integer[] order, double[][] points, int from, int to, int axis) {
+        if (to - from <= 1) {
+            return;
+        }
+        Arrays.sort(order, from, to, (a, b) -> Double.compare(points[a][axis], points[b][axis]));
+        int mid = (from + to) >>> 1;
+        build(order, points, from, mid, (axis + 1) % 3);
+        build(order, points, mid + 1, to, (axis + 1) % 3);
+    }
+
+    /**
+     * Converts a latitude and longitude in degrees to a point on the unit sphere.
+     */
+    private static double[] toUnitVector(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        return new double[]{Math.cos(lat) * Math.cos(lon), Math.cos(lat) * Math.sin(lon), Math.sin(lat)};
+    }
+
+    /**
+     * @param distanceKm a great-circle distance.
+     * @return the straight-line distance on the unit sphere between two points that far apart.
+     */
+    private static double chord(double distanceKm) {
+        double angle = Math.min(distanceKm / GeoPoints.EARTH_RADIUS_KM, Math.PI);
+        return 2 * Math.sin(angle / 2);
+    }
+
+    /**
+     * Squared Euclidean distance between two points in three dimensions.
+     */
+    private static double squaredDistance(double[] a, double[] b) {
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        double dz = a[2] - b[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+}
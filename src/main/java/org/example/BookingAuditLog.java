@@ -0,0 +1,51 @@
+package org.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@code BookingAuditLog} class writes the booking audit stream: one event per booking attempt with the
+ * flight, the seat, the outcome, the price and the latency. Events are logged through the
+ * {@value #LOGGER_NAME} logger, which {@code logback.xml} routes to a non-blocking asynchronous appender.
+ *
+ * <p>The fields are attached as SLF4J key-value pairs and the message is a constant, so nothing is
+ * formatted on the booking thread: the pairs are rendered by the appender's worker thread.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public final class BookingAuditLog {
+
+    /**
+     * Name of the logger the audit events are written to.
+     */
+    public static final String LOGGER_NAME = "booking.audit";
+
+    private static final Logger AUDIT = LoggerFactory.getLogger(LOGGER_NAME);
+
+    private BookingAuditLog() {
+    }
+
+    /**
+     * Writes the audit event of one booking attempt.
+     *
+     * @param flightID the ID of the flight.
+     * @param seatID the ID of the seat.
+     * @param outcome the outcome of the attempt.
+     * @param price the price of the seat, or a negative value if it was not known.
+     * @param latencyNanos the duration of the attempt in nanoseconds.
+     */
+    public static void record(String flightID, String seatID, String outcome, double price, long latencyNanos) {
+        if (!AUDIT.isInfoEnabled()) {
+            return;
+        }
+        AUDIT.atInfo()
+                .addKeyValue("flight", flightID)
+                .addKeyValue("seat", seatID)
+                .addKeyValue("outcome", outcome)
+                .addKeyValue("price", price)
+                .addKeyValue("latencyMicros", latencyNanos / 1000)
+                .log("booking");
+    }
+}
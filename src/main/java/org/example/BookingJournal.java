@@ -0,0 +1,342 @@
+package org.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * The {@code BookingJournal} class is a local, durable log of the bookings that still have to be written to
+ * the database: a memory-mapped file used as a ring of length-prefixed records, each holding the seats of
+ * one booking.
+ *
+ * <p>{@link #append(List, long, TimeUnit)} returns once the record is on disk. The file is forced once for
+ * every booking appended since the previous force, so that concurrent bookings share the cost of one fsync.
+ * A single consumer, see {@link JournalFlusher}, reads the records with {@link #pending(int)} and releases them with
+ * {@link #acknowledge()} once they are in the database; the position of the first record not yet released
+ * is kept in the header of the file, so that after a restart the records that were not released are read
+ * again. Applying them must therefore be idempotent.
+ *
+ * <p>Each record is {@code [length][sequence][CRC-32C][payload]}. A record does not wrap around the end of
+ * the ring: the rest of the ring is skipped, marked by a length of -1 if there is room for a record header.
+ * After a restart the records are read from the header position for as long as their sequence numbers
+ * follow each other and their checksums match, which also drops a record torn by a crash.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class BookingJournal implements AutoCloseable {
+
+    private static final int MAGIC = 0x424A524E;
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_HEADER_SIZE = 16;
+    private static final int SKIP = -1;
+
+    /**
+     * A seat to be written as booked, with the person it is booked for and the balance left to them.
+     */
+    public record Entry(String flightID, String seatID, String name, String surname, String documentInfo,
+                        String dateOfBirth, double balance) {
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Condition released = appendLock.newCondition();
+    private final ReentrantLock forceLock = new ReentrantLock();
+
+    private volatile long appendPosition;
+    private long nextSequence;
+    private volatile long durablePosition;
+    private volatile long releasedPosition;
+    private long releasedSequence;
+    private long readPosition;
+    private long readSequence;
+
+    /**
+     * Opens a journal, creating it with the given capacity if the file does not exist. An existing file keeps
+     * its capacity, and its records not yet released are read again by the consumer.
+     *
+     * @param file the journal file.
+     * @param capacity the bytes available to records in a new file.
+     * @throws IOException if the file cannot be opened or is not a journal.
+     */
+    public BookingJournal(Path file, int capacity) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean created = channel.size() == 0;
+        long size = created ? (long) HEADER_SIZE + capacity : channel.size();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        this.capacity = (int) (size - HEADER_SIZE);
+        if (created) {
+            // Sequence numbers start at 1, so that the zeroed file does not read as a record
+            buffer.putInt(0, MAGIC);
+            writeHeader(0, 1);
+            buffer.force();
+        } else if (buffer.getInt(0) != MAGIC) {
+            channel.close();
+            throw new IOException(file + " is not a booking journal");
+        }
+        releasedPosition = buffer.getLong(8);
+        releasedSequence = buffer.getLong(16);
+        readPosition = releasedPosition;
+        readSequence = releasedSequence;
+
+        // Find the end of the records that follow each other from the released position
+        long[] end = scan(releasedPosition, releasedSequence, Long.MAX_VALUE, Integer.MAX_VALUE, null);
+        appendPosition = end[0];
+        nextSequence = end[1];
+        durablePosition = appendPosition;
+    }
+
+    /**
+     * Appends the seats of one booking as a single record and waits until it is on disk.
+     *
+     * @param entries the seats.
+     * @param timeout the longest time to wait for room in the journal.
+     * @param unit the unit of the timeout.
+     * @throws IllegalStateException if the journal stayed full for the whole timeout.
+     * @throws InterruptedException if interrupted while waiting for room.
+     */
+    public void append(List<Entry> entries, long timeout, TimeUnit unit) throws InterruptedException {
+        byte[] payload = encode(entries);
+        int size = RECORD_HEADER_SIZE + payload.length;
+        if (size > capacity) {
+            throw new IllegalArgumentException("A record of " + size + " bytes does not fit a journal of " + capacity + " bytes");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+
+        long end;
+        appendLock.lock();
+        try {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            int offset;
+            int skipped;
+            while (true) {
+                offset = offset(appendPosition);
+                skipped = capacity - offset < size ? capacity - offset : 0;
+                if (appendPosition + skipped + size - releasedPosition <= capacity) {
+                    break;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IllegalStateException("The booking journal is full");
+                }
+                released.awaitNanos(remaining);
+            }
+            if (skipped > 0) {
+                if (skipped >= RECORD_HEADER_SIZE) {
+                    buffer.putInt(HEADER_SIZE + offset, SKIP);
+                    buffer.putLong(HEADER_SIZE + offset + 4, nextSequence);
+                }
+                offset = 0;
+            }
+            buffer.putInt(HEADER_SIZE + offset, payload.length);
+            buffer.putLong(HEADER_SIZE + offset + 4, nextSequence);
+            buffer.putInt(HEADER_SIZE + offset + 12, (int) crc.getValue());
+            buffer.put(HEADER_SIZE + offset + RECORD_HEADER_SIZE, payload);
+            nextSequence++;
+            end = appendPosition + skipped + size;
+            appendPosition = end;
+        } finally {
+            appendLock.unlock();
+        }
+        force(end);
+    }
+
+    /**
+     * Forces the journal to disk up to a position, unless a concurrent call already did: the calls waiting
+     * for the lock are covered by the next force, which includes every record appended before it.
+     */
+    private void force(long position) {
+        if (durablePosition >= position) {
+            return;
+        }
+        forceLock.lock();
+        try {
+            if (durablePosition < position) {
+                long target = appendPosition;
+                buffer.force();
+                durablePosition = target;
+            }
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the records on disk that have not been released yet, from the first one, so that a consumer that
+     * failed to apply them reads them again. Only the consumer may call this method.
+     *
+     * @param maxEntries the number of seats after which no further record is read.
+     * @return the seats, in the order they were appended, empty if there is none.
+     */
+    public List<Entry> pending(int maxEntries) {
+        List<Entry> entries = new ArrayList<>();
+        long[] end = scan(releasedPosition, releasedSequence, durablePosition, maxEntries, entries);
+        readPosition = end[0];
+        readSequence = end[1];
+        return entries;
+    }
+
+    /**
+     * Releases the records returned by the last call to {@link #pending(int)}, making room for new records.
+     * Only the consumer may call this method.
+     */
+    public void acknowledge() {
+        // The header must be on disk before the released records are overwritten, or a restart would start
+        // reading from a record that no longer exists and lose the ones after it
+        writeHeader(readPosition, readSequence);
+        buffer.force(8, 16);
+        appendLock.lock();
+        try {
+            releasedPosition = readPosition;
+            releasedSequence = readSequence;
+            released.signalAll();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * @return the seats of every record not released yet, e.g. to restore them after a restart.
+     */
+    public List<Entry> unreleased() {
+        List<Entry> entries = new ArrayList<>();
+        scan(releasedPosition, releasedSequence, durablePosition, Integer.MAX_VALUE, entries);
+        return entries;
+    }
+
+    /**
+     * @return the number of bytes of records not released yet.
+     */
+    public long backlog() {
+        return appendPosition - releasedPosition;
+    }
+
+    /**
+     * Reads the records that follow each other from a position, up to a limit.
+     *
+     * @return the position and the sequence number after the last record read.
+     */
+    private long[] scan(long position, long sequence, long limit, int maxEntries, List<Entry> entries) {
+        ByteBuffer view = buffer.duplicate();
+        int read = 0;
+        while (position < limit && read < maxEntries) {
+            int offset = offset(position);
+            if (capacity - offset < RECORD_HEADER_SIZE) {
+                position += capacity - offset;
+                continue;
+            }
+            int length = view.getInt(HEADER_SIZE + offset);
+            if (view.getLong(HEADER_SIZE + offset + 4) != sequence) {
+                break;
+            }
+            if (length == SKIP) {
+                position += capacity - offset;
+                continue;
+            }
+            if (length < 0 || length > capacity - offset - RECORD_HEADER_SIZE) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            view.get(HEADER_SIZE + offset + RECORD_HEADER_SIZE, payload);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            if ((int) crc.getValue() != view.getInt(HEADER_SIZE + offset + 12)) {
+                break;
+            }
+            List<Entry> record = decode(payload);
+            if (entries != null) {
+                entries.addAll(record);
+            }
+            read += record.size();
+            position += RECORD_HEADER_SIZE + length;
+            sequence++;
+        }
+        return new long[] {position, sequence};
+    }
+
+    private int offset(long position) {
+        return (int) (position % capacity);
+    }
+
+    private void writeHeader(long position, long sequence) {
+        buffer.putLong(8, position);
+        buffer.putLong(16, sequence);
+    }
+
+    private static byte[] encode(List<Entry> entries) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + 96 * entries.size());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(entries.size());
+            for (Entry entry : entries) {
+                writeString(out, entry.flightID());
+                writeString(out, entry.seatID());
+                writeString(out, entry.name());
+                writeString(out, entry.surname());
+                writeString(out, entry.documentInfo());
+                writeString(out, entry.dateOfBirth());
+                out.writeDouble(entry.balance());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<Entry> decode(byte[] payload) {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        int count = in.getInt();
+        List<Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            entries.add(new Entry(readString(in), readString(in), readString(in), readString(in), readString(in),
+                    readString(in), in.getDouble()));
+        }
+        return entries;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    /**
+     * Forces the journal to disk and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
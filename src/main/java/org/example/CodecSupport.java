@@ -0,0 +1,97 @@
+package org.example;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+
+/**
+ * Reading and writing helpers shared by {@link AirportCodec}, {@link FlightCodec} and {@link SeatCodec}.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+final class CodecSupport {
+
+    private CodecSupport() {
+    }
+
+    /**
+     * Reads a string value, accepting BSON null.
+     *
+     * @param reader the reader positioned on the value.
+     * @return the string, or null.
+     */
+    static String readString(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.NULL) {
+            reader.readNull();
+            return null;
+        }
+        if (reader.getCurrentBsonType() != BsonType.STRING) {
+            reader.skipValue();
+            return null;
+        }
+        return reader.readString();
+    }
+
+    /**
+     * Reads a numeric value of any BSON number type as an int, since the data set stores the same field as
+     * an int32 or, once a booking has written it, as a double.
+     *
+     * @param reader the reader positioned on the value.
+     * @param defaultValue the value returned for null or non-numeric values.
+     * @return the value, truncated towards zero.
+     */
+    static int readInt(BsonReader reader, int defaultValue) {
+        switch (reader.getCurrentBsonType()) {
+            case INT32:
+                return reader.readInt32();
+            case INT64:
+                return (int) reader.readInt64();
+            case DOUBLE:
+                return (int) reader.readDouble();
+            case DECIMAL128:
+                return reader.readDecimal128().intValue();
+            default:
+                reader.skipValue();
+                return defaultValue;
+        }
+    }
+
+    /**
+     * Reads a numeric value of any BSON number type as a double, for the fields that keep their cents, such as
+     * the balance of a seat.
+     *
+     * @param reader the reader positioned on the value.
+     * @param defaultValue the value returned for null or non-numeric values.
+     * @return the value.
+     */
+    static double readDouble(BsonReader reader, double defaultValue) {
+        switch (reader.getCurrentBsonType()) {
+            case INT32:
+                return reader.readInt32();
+            case INT64:
+                return reader.readInt64();
+            case DOUBLE:
+                return reader.readDouble();
+            case DECIMAL128:
+                return reader.readDecimal128().doubleValue();
+            default:
+                reader.skipValue();
+                return defaultValue;
+        }
+    }
+
+    /**
+     * Writes a string field, leaving it out when the value is null.
+     *
+     * @param writer the writer.
+     * @param name the field name.
+     * @param value the value.
+     */
+    static void writeString(BsonWriter writer, String name, String value) {
+        if (value != null) {
+            writer.writeString(name, value);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package org.example;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code ConnectionRegistry} class creates and keeps one MongoClient per name, each configured from a
+ * properties file. Separate names give separate connection pools, so that, for example, long search scans
+ * cannot take every connection that bookings need.
+ *
+ * <p>Every setting is read as {@code <name>.<key>}, falling back to {@code default.<key>} and then to the
+ * built-in default:
+ * <ul>
+ * <li>{@code uri}: the connection string.
+ * <li>{@code pool.minSize}, {@code pool.maxSize}: the bounds of the connection pool of each server.
+ * <li>{@code pool.maxWaitMillis}: how long an operation may wait for a pooled connection.
+ * <li>{@code socket.connectTimeoutMillis}, {@code socket.readTimeoutMillis}: the socket timeouts.
+ * <li>{@code serverSelectionTimeoutMillis}: how long an operation may wait for a suitable server.
+ * </ul>
+ *
+ * <p>The pool activity of every client is tracked by a {@link PoolStatistics} listener, and the latency of
+ * every command of every client is recorded by the shared {@link LatencyMetrics}. The same file also holds the
+ * {@link OperationProfiles} choosing the read preference and concerns of each kind of operation.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class ConnectionRegistry implements AutoCloseable {
+
+    /**
+     * Name of the client used for flight searches and seat listings.
+     */
+    public static final String SEARCH = "search";
+
+    /**
+     * Name of the client used for bookings.
+     */
+    public static final String BOOKING = "booking";
+
+    /**
+     * Name of the client used to import the CSV data set with {@code Modeling}.
+     */
+    public static final String IMPORT = "import";
+
+    /**
+     * Name of the client connected to the mongos of the sharded cluster in docker-compose.yml.
+     */
+    public static final String SHARDED = "sharded";
+
+    /**
+     * Configuration file read by {@link #load()} unless the {@code connections.config} system property is set.
+     */
+    public static final String DEFAULT_CONFIG_FILE = "connections.properties";
+
+    private static final String DEFAULT_URI = "mongodb://localhost:27017";
+
+    private final Properties config;
+    private final Map<String, MongoClient> clients = new HashMap<>();
+    private final Map<String, PoolStatistics> statistics = new HashMap<>();
+    private final LatencyMetrics latencyMetrics = new LatencyMetrics();
+    private final OperationProfiles operationProfiles;
+
+    /**
+     * Constructs a registry configured by the given properties.
+     *
+     * @param config the connection settings.
+     */
+    public ConnectionRegistry(Properties config) {
+        this.config = config;
+        this.operationProfiles = new OperationProfiles(config);
+    }
+
+    /**
+     * Loads the registry configuration from the file named by the {@code connections.config} system property,
+     * or from {@value #DEFAULT_CONFIG_FILE}. If the file does not exist, the built-in defaults are used.
+     *
+     * @return the configured registry.
+     * @throws IOException if the configuration file cannot be read.
+     */
+    public static ConnectionRegistry load() throws IOException {
+        Path path = Paths.get(System.getProperty("connections.config", DEFAULT_CONFIG_FILE));
+        Properties config = new Properties();
+        if (Files.exists(path)) {
+            try (Reader reader = new FileReader(path.toFile())) {
+                config.load(reader);
+            }
+        }
+        return new ConnectionRegistry(config);
+    }
+
+    /**
+     * Returns the client registered under the given name, creating it on first use.
+     *
+     * @param name the name of the client.
+     * @return the MongoClient for that name.
+     */
+    public synchronized MongoClient getClient(String name) {
+        MongoClient client = clients.get(name);
+        if (client == null) {
+            PoolStatistics poolStatistics = new PoolStatistics(name);
+            client = MongoClients.create(buildSettings(name, poolStatistics));
+            clients.put(name, client);
+            statistics.put(name, poolStatistics);
+        }
+        return client;
+    }
+
+    /**
+     * Returns the pool statistics of the client registered under the given name.
+     *
+     * @param name the name of the client.
+     * @return the statistics, or null if the client has not been created yet.
+     */
+    public synchronized PoolStatistics getPoolStatistics(String name) {
+        return statistics.get(name);
+    }
+
+    /**
+     * Returns the latency metrics every client of this registry reports its commands to.
+     *
+     * @return the shared latency metrics.
+     */
+    public LatencyMetrics getLatencyMetrics() {
+        return latencyMetrics;
+    }
+
+    /**
+     * Returns the read preference, read concern and write concern of each kind of operation, as configured
+     * by the {@code profile.<operation>.<key>} settings.
+     *
+     * @return the operation profiles.
+     */
+    public OperationProfiles getOperationProfiles() {
+        return operationProfiles;
+    }
+
+    /**
+     * Builds the settings of the named client from the configuration.
+     *
+     * @param name the name of the client.
+     * @param poolListener the listener registered on the connection pool.
+     * @return the client settings.
+     */
+    MongoClientSettings buildSettings(String name, PoolStatistics poolListener) {
+        ConnectionString uri = new ConnectionString(setting(name, "uri", DEFAULT_URI));
+        MongoClientSettings.Builder builder = MongoClientSettings.builder()
+                .applyConnectionString(uri)
+                .codecRegistry(AirportCodecProvider.REGISTRY)
+                .addCommandListener(latencyMetrics);
+
+        builder.applyToConnectionPoolSettings(pool -> {
+            Integer minSize = intSetting(name, "pool.minSize");
+            Integer maxSize = intSetting(name, "pool.maxSize");
+            Integer maxWaitMillis = intSetting(name, "pool.maxWaitMillis");
+            if (minSize != null) {
+                pool.minSize(minSize);
+            }
+            if (maxSize != null) {
+                pool.maxSize(maxSize);
+            }
+            if (maxWaitMillis != null) {
+                pool.maxWaitTime(maxWaitMillis, TimeUnit.MILLISECONDS);
+            }
+            pool.addConnectionPoolListener(poolListener);
+        });
+
+        builder.applyToSocketSettings(socket -> {
+            Integer connectTimeoutMillis = intSetting(name, "socket.connectTimeoutMillis");
+            Integer readTimeoutMillis = intSetting(name, "socket.readTimeoutMillis");
+            if (connectTimeoutMillis != null) {
+                socket.connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            if (readTimeoutMillis != null) {
+                socket.readTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS);
+            }
+        });
+
+        builder.applyToClusterSettings(cluster -> {
+            Integer serverSelectionTimeoutMillis = intSetting(name, "serverSelectionTimeoutMillis");
+            if (serverSelectionTimeoutMillis != null) {
+                cluster.serverSelectionTimeout(serverSelectionTimeoutMillis, TimeUnit.MILLISECONDS);
+            }
+        });
+
+        return builder.build();
+    }
+
+    /**
+     * Reads a setting of the named client, falling back to the default section.
+     *
+     * @param name the name of the client.
+     * @param key the setting key.
+     * @param defaultValue the value used when neither section sets the key.
+     * @return the configured value.
+     */
+    private String setting(String name, String key, String defaultValue) {
+        return config.getProperty(name + "." + key, config.getProperty("default." + key, defaultValue));
+    }
+
+    /**
+     * Reads an integer setting of the named client, falling back to the default section.
+     *
+     * @param name the name of the client.
+     * @param key the setting key.
+     * @return the configured value, or null to keep the driver default.
+     */
+    private Integer intSetting(String name, String key) {
+        String value = setting(name, key, null);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + name + "." + key + ": " + value, e);
+        }
+    }
+
+    /**
+     * Closes every client created by the registry.
+     */
+    @Override
+    public synchronized void close() {
+        clients.values().forEach(MongoClient::close);
+        clients.clear();
+        statistics.clear();
+    }
+}
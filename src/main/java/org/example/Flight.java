@@ -1,31 +1,147 @@
 package org.example;
 
 import org.bson.Document;
+import org.bson.types.ObjectId;
 
 import java.lang.annotation.Documented;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * A flight and its seats. The departure is kept as minutes since the epoch and the duration as minutes,
+ * see {@link FlightTimes}; the operator name is shared by every flight of the same operator; the status of
+ * each seat is a {@link SeatStatus} constant, so that availability checks compare references.
+ * The {@code Day}, {@code Hour} and {@code Duration} text is only rebuilt when the flight is written out.
+ */
 public class Flight {
+
+    /**
+     * The operators seen so far, so that a few dozen names are shared by every flight instead of being
+     * copied into each one.
+     */
+    private static final ConcurrentHashMap<String, String> OPERATORS = new ConcurrentHashMap<>();
+
     private String id;
     private int numberOfSeats;
-    private String day;
-    private String hour;
+    private int departureMinute;
     private String operator;
-    private String duration;
+    private int durationMinutes;
     private int pricePerPerson;
     private List<Seat> seats;
+    private ObjectId destination;
 
     public Flight(String id, int numberOfSeats, String day, String hour, String operator, String duration,
                   int pricePerPerson, List<Seat> seats) {
+        this(id, numberOfSeats, day, hour, operator, duration, pricePerPerson, seats, null);
+    }
+
+    public Flight(String id, int numberOfSeats, String day, String hour, String operator, String duration,
+                  int pricePerPerson, List<Seat> seats, ObjectId destination) {
+        this(id, numberOfSeats, FlightTimes.parseDeparture(day, hour), operator,
+                FlightTimes.parseDurationMinutes(duration), pricePerPerson, seats, destination);
+    }
+
+    public Flight(String id, int numberOfSeats, int departureMinute, String operator, int durationMinutes,
+                  int pricePerPerson, List<Seat> seats, ObjectId destination) {
         this.id = id;
         this.numberOfSeats = numberOfSeats;
-        this.day = day;
-        this.hour = hour;
-        this.operator = operator;
-        this.duration = duration;
+        this.departureMinute = departureMinute;
+        this.operator = internOperator(operator);
+        this.durationMinutes = durationMinutes;
         this.pricePerPerson = pricePerPerson;
-        this.seats = seats;
+        this.seats = seats == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(seats));
+        this.destination = destination;
+    }
+
+    /**
+     * @param operator an operator name.
+     * @return the shared instance of the name.
+     */
+    static String internOperator(String operator) {
+        if (operator == null) {
+            return null;
+        }
+        String shared = OPERATORS.putIfAbsent(operator, operator);
+        return shared == null ? operator : shared;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getNumberOfSeats() {
+        return numberOfSeats;
+    }
+
+    /**
+     * @return the departure in minutes since the epoch, or {@link FlightTimes#UNKNOWN_DEPARTURE}.
+     */
+    public int getDepartureMinute() {
+        return departureMinute;
+    }
+
+    /**
+     * @return the departure in UTC, or null if unknown.
+     */
+    public LocalDateTime getDeparture() {
+        return departureMinute == FlightTimes.UNKNOWN_DEPARTURE ? null : FlightTimes.toDateTime(departureMinute);
+    }
+
+    public String getDay() {
+        return FlightTimes.formatDay(departureMinute);
+    }
+
+    public String getHour() {
+        return FlightTimes.formatHour(departureMinute);
+    }
+
+    public String getOperator() {
+        return operator;
+    }
+
+    /**
+     * @return the duration in minutes, 0 if unknown.
+     */
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public String getDuration() {
+        return FlightTimes.formatDuration(durationMinutes);
+    }
+
+    public int getPricePerPerson() {
+        return pricePerPerson;
+    }
+
+    public List<Seat> getSeats() {
+        return seats;
+    }
+
+    /**
+     * @return the _id of the destination airport, or null if unknown.
+     */
+    public ObjectId getDestination() {
+        return destination;
+    }
+
+    /**
+     * @param seatID the ID of a seat.
+     * @param documentInfo the document of the person booking or holding the seat.
+     * @param nowMillis the current time in milliseconds since the epoch.
+     * @return the seat, or null if the flight has no seat with that ID that the person can book or hold,
+     *         see {@link Seat#isAvailableTo(String, long)}.
+     */
+    public Seat findAvailableSeat(String seatID, String documentInfo, long nowMillis) {
+        for (Seat seat : seats) {
+            if (seat.getStatus() != SeatStatus.BOOKED && seatID.equals(seat.getId())) {
+                return seat.isAvailableTo(documentInfo, nowMillis) ? seat : null;
+            }
+        }
+        return null;
     }
 
     @Override
@@ -33,11 +149,11 @@ public class Flight {
         return "Flight{" +
                 "id='" + id + '\'' +
                 ", numberOfSeats=" + numberOfSeats +
-                ", day='" + day + '\'' +
-                ", hour='" + hour + '\'' +
+                ", departure=" + getDeparture() +
                 ", operator='" + operator + '\'' +
-                ", duration='" + duration + '\'' +
+                ", durationMinutes=" + durationMinutes +
                 ", pricePerPerson=" + pricePerPerson +
+                ", destination=" + destination +
                 ", seats=" + seats +
                 '}';
     }
@@ -45,11 +161,14 @@ public class Flight {
     public Document getDocument() {
         Document document = new Document("id", this.id)
                 .append("numberOfSeats", this.numberOfSeats)
-                .append("day", this.day)
-                .append("hour", this.hour)
+                .append("day", getDay())
+                .append("hour", getHour())
                 .append("operator", this.operator)
-                .append("duration", this.duration)
+                .append("duration", getDuration())
                 .append("pricePerPerson", this.pricePerPerson);
+        if (this.destination != null) {
+            document.append("destination", this.destination);
+        }
 
         List<Document> listSeats = new ArrayList<>();
 
@@ -61,4 +180,4 @@ public class Flight {
 
         return document;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,110 @@
+package org.example;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code FlightCodec} class writes a {@link Flight}, seats included, straight to a {@link BsonWriter}
+ * with the field names of {@link Flight#getDocument()}, and reads one straight from a {@link BsonReader}.
+ * Reading also accepts the field names written by {@code Modeling}, e.g. {@code Price_per_Person}, and
+ * converts the {@code Day}, {@code Hour} and {@code Duration} text to minutes as it reads them, see
+ * {@link FlightTimes}. A flight read without a price has a price of -1.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class FlightCodec implements Codec<Flight> {
+
+    private final SeatCodec seatCodec;
+
+    /**
+     * Constructs a codec that encodes and decodes seats with the given codec.
+     *
+     * @param seatCodec the codec of the seats.
+     */
+    public FlightCodec(SeatCodec seatCodec) {
+        this.seatCodec = seatCodec;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Flight flight, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        CodecSupport.writeString(writer, "id", flight.getId());
+        writer.writeInt32("numberOfSeats", flight.getNumberOfSeats());
+        CodecSupport.writeString(writer, "day", flight.getDay());
+        CodecSupport.writeString(writer, "hour", flight.getHour());
+        CodecSupport.writeString(writer, "operator", flight.getOperator());
+        CodecSupport.writeString(writer, "duration", flight.getDuration());
+        writer.writeInt32("pricePerPerson", flight.getPricePerPerson());
+        if (flight.getDestination() != null) {
+            writer.writeObjectId("destination", flight.getDestination());
+        }
+        writer.writeStartArray("seats");
+        if (flight.getSeats() != null) {
+            for (Seat seat : flight.getSeats()) {
+                encoderContext.encodeWithChildContext(seatCodec, writer, seat);
+            }
+        }
+        writer.writeEndArray();
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Flight decode(BsonReader reader, DecoderContext decoderContext) {
+        String id = null;
+        int numberOfSeats = 0;
+        String day = null;
+        String hour = null;
+        String operator = null;
+        String duration = null;
+        int pricePerPerson = -1;
+        ObjectId destination = null;
+        List<Seat> seats = new ArrayList<>();
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "id", "ID" -> id = CodecSupport.readString(reader);
+                case "numberOfSeats", "Number_of_Seats" -> numberOfSeats = CodecSupport.readInt(reader, 0);
+                case "day", "Day" -> day = CodecSupport.readString(reader);
+                case "hour", "Hour" -> hour = CodecSupport.readString(reader);
+                case "operator", "Operator" -> operator = CodecSupport.readString(reader);
+                case "duration", "Duration" -> duration = CodecSupport.readString(reader);
+                case "pricePerPerson", "Price_per_Person" -> pricePerPerson = CodecSupport.readInt(reader, -1);
+                case "destination", "Destination" -> {
+                    if (reader.getCurrentBsonType() == BsonType.OBJECT_ID) {
+                        destination = reader.readObjectId();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                case "seats", "Seats" -> {
+                    reader.readStartArray();
+                    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                        seats.add(decoderContext.decodeWithChildContext(seatCodec, reader));
+                    }
+                    reader.readEndArray();
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new Flight(id, numberOfSeats, FlightTimes.parseDeparture(day, hour), operator,
+                FlightTimes.parseDurationMinutes(duration), pricePerPerson, seats, destination);
+    }
+
+    @Override
+    public Class<Flight> getEncoderClass() {
+        return Flight.class;
+    }
+}
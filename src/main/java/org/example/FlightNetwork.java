@@ -0,0 +1,541 @@
+package org.example;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Projections;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code FlightNetwork} class is an in-memory snapshot of the flight network, with airports as nodes
+ * and flights as edges, that answers multi-leg itinerary queries without touching MongoDB:
+ * <ul>
+ * <li>{@link #earliestArrival}: the itinerary arriving first, found with a time-dependent A* search whose
+ * heuristic is the great-circle distance to the destination divided by the fastest flight of the network.
+ * <li>{@link #cheapest}: the itinerary with the lowest total price, found with Dijkstra's algorithm over
+ * the flights, since a cheaper but later arrival may miss a connection.
+ * </ul>
+ * Both honour a maximum number of legs and a minimum connection time between legs.
+ *
+ * <p>The network is stored as primitive arrays in compressed sparse row form: the flights departing from
+ * airport {@code i} are the indexes {@code firstEdge[i]} to {@code firstEdge[i + 1] - 1}, sorted by departure
+ * time, so that the first connection catchable after an arrival is found with a binary search. Times are
+ * minutes since the epoch, as read by {@link FlightTimes}. The search buffers are reused per
+ * thread, so that a query allocates little more than its result and the instance can be shared by threads.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class FlightNetwork {
+
+    private final String[] codes;
+    private final Map<String, Integer> indexByCode = new HashMap<>();
+    private final double[] latitude;
+    private final double[] longitude;
+
+    private final int[] firstEdge;
+    private final int[] source;
+    private final int[] target;
+    private final int[] departure;
+    private final int[] arrival;
+    private final double[] price;
+    private final String[] flightIds;
+
+    private final double maxSpeedKmPerMinute;
+    private final ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(Workspace::new);
+
+    /**
+     * One flight of an itinerary.
+     *
+     * @param flightID the ID of the flight.
+     * @param from the IATA code of the departure airport.
+     * @param to the IATA code of the arrival airport.
+     * @param departure the departure time.
+     * @param arrival the arrival time.
+     * @param price the price per person.
+     */
+    public record Leg(String flightID, String from, String to, LocalDateTime departure, LocalDateTime arrival, double price) {
+    }
+
+    /**
+     * A sequence of connecting flights.
+     *
+     * @param legs the flights, in travel order.
+     */
+    public record Itinerary(List<Leg> legs) {
+
+        /**
+         * @return the sum of the prices of the legs.
+         */
+        public double price() {
+            return legs.stream().mapToDouble(Leg::price).sum();
+        }
+
+        /**
+         * @return the departure time of the first leg.
+         */
+        public LocalDateTime departure() {
+            return legs.get(0).departure();
+        }
+
+        /**
+         * @return the arrival time of the last leg.
+         */
+        public LocalDateTime arrival() {
+            return legs.get(legs.size() - 1).arrival();
+        }
+    }
+
+    /**
+     * A flight read from an airport document, before being laid out in the arrays.
+     */
+    private record Edge(int origin, int target, int departure, int arrival, double price, String flightId) {
+    }
+
+    /**
+     * Builds the network from airport documents shaped like those written by {@code Modeling}: an
+     * {@code IATA_code}, an optional {@code Geo_Point} as {@code "latitude; longitude"} and a {@code Flights}
+     * array whose elements reference their destination airport by {@code _id}. Flights with an unknown
+     * destination or an unreadable schedule are skipped.
+     *
+     * @param airports the airport documents.
+     */
+    public FlightNetwork(List<Document> airports) {
+        int n = airports.size();
+        codes = new String[n];
+        latitude = new double[n];
+        longitude = new double[n];
+        Map<ObjectId, Integer> indexById = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            Document airport = airports.get(i);
+            codes[i] = airport.getString("IATA_code");
+            indexById.put(airport.getObjectId("_id"), i);
+            if (codes[i] != null) {
+                indexByCode.putIfAbsent(codes[i], i);
+            }
+            double[] point = parseGeoPoint(airport.get("Geo_Point"));
+            latitude[i] = point[0];
+            longitude[i] = point[1];
+        }
+
+        List<Edge> edges = new ArrayList<>();
+        double maxSpeed = 0;
+        for (int i = 0; i < n; i++) {
+            for (Document flight : airports.get(i).getList("Flights", Document.class, Collections.emptyList())) {
+                Integer destination = indexById.get(flight.getObjectId("Destination"));
+                int departureMinute = FlightTimes.parseDeparture(flight.getString("Day"), flight.getString("Hour"));
+                int duration = FlightTimes.parseDurationMinutes(flight.getString("Duration"));
+                Object flightPrice = flight.get("Price_per_Person");
+                if (destination == null || departureMinute == FlightTimes.UNKNOWN_DEPARTURE || duration <= 0 || !(flightPrice instanceof Number)) {
+                    continue;
+                }
+                edges.add(new Edge(i, destination, departureMinute, departureMinute + duration,
+                        ((Number) flightPrice).doubleValue(), flight.getString("ID")));
+                double distance = distanceKm(i, destination);
+                if (!Double.isNaN(distance)) {
+                    maxSpeed = Math.max(maxSpeed, distance / duration);
+                }
+            }
+        }
+        edges.sort((a, b) -> a.origin() != b.origin()
+                ? Integer.compare(a.origin(), b.origin())
+                : Integer.compare(a.departure(), b.departure()));
+
+        int m = edges.size();
+        firstEdge = new int[n + 1];
+        source = new int[m];
+        target = new int[m];
+        departure = new int[m];
+        arrival = new int[m];
+        price = new double[m];
+        flightIds = new String[m];
+        for (int e = 0; e < m; e++) {
+            Edge edge = edges.get(e);
+            firstEdge[edge.origin() + 1]++;
+            source[e] = edge.origin();
+            target[e] = edge.target();
+            departure[e] = edge.departure();
+            arrival[e] = edge.arrival();
+            price[e] = edge.price();
+            flightIds[e] = edge.flightId();
+        }
+        for (int i = 0; i < n; i++) {
+            firstEdge[i + 1] += firstEdge[i];
+        }
+        maxSpeedKmPerMinute = maxSpeed;
+    }
+
+    /**
+     * Loads the network from an airport collection, reading only the fields the searches need.
+     *
+     * @param collection the airport collection, in the shape written by {@code Modeling}.
+     * @return the network.
+     */
+    public static FlightNetwork load(MongoCollection<Document> collection) {
+        return new FlightNetwork(collection.find()
+                .projection(Projections.include("IATA_code", "Geo_Point", "Flights.ID", "Flights.Day", "Flights.Hour",
+                        "Flights.Duration", "Flights.Price_per_Person", "Flights.Destination"))
+                .into(new ArrayList<>()));
+    }
+
+    /**
+     * @return the number of airports.
+     */
+    public int airports() {
+        return codes.length;
+    }
+
+    /**
+     * @return the number of flights.
+     */
+    public int flights() {
+        return target.length;
+    }
+
+    /**
+     * Finds the itinerary that arrives first.
+     *
+     * @param from the IATA code of the departure airport.
+     * @param to the IATA code of the arrival airport.
+     * @param notBefore the earliest time the first flight may leave.
+     * @param maxLegs the maximum number of flights.
+     * @param minConnectionMinutes the minimum time between the arrival of a flight and the departure of the next.
+     * @return the itinerary, or null if there is none.
+     */
+    public Itinerary earliestArrival(String from, String to, LocalDateTime notBefore, int maxLegs, int minConnectionMinutes) {
+        Integer origin = indexByCode.get(from);
+        Integer destination = indexByCode.get(to);
+        if (origin == null || destination == null || maxLegs <= 0 || origin.equals(destination)) {
+            return null;
+        }
+
+        // A state is an airport reached with a given number of legs: h * n + airport
+        int n = codes.length;
+        Workspace ws = workspaces.get();
+        ws.reset((maxLegs + 1) * n);
+
+        ws.improve(origin, FlightTimes.toMinutes(notBefore), -1, -1);
+        ws.push(origin, FlightTimes.toMinutes(notBefore) + heuristic(origin, destination));
+        while (ws.size > 0) {
+            int state = ws.pop();
+            int legs = state / n;
+            int airport = state % n;
+            double time = ws.best(state);
+            if (ws.isSettled(state)) {
+                continue;
+            }
+            ws.settle(state);
+            if (airport == destination) {
+                return itinerary(ws, state);
+            }
+            if (legs == maxLegs || dominated(ws, airport, legs, n, time)) {
+                continue;
+            }
+
+            int ready = (int) time + (legs > 0 ? minConnectionMinutes : 0);
+            for (int e = firstDepartureAfter(airport, ready); e < firstEdge[airport + 1]; e++) {
+                int next = (legs + 1) * n + target[e];
+                if (arrival[e] < ws.best(next)) {
+                    ws.improve(next, arrival[e], e, state);
+                    ws.push(next, arrival[e] + heuristic(target[e], destination));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the itinerary with the lowest total price.
+     *
+     * @param from the IATA code of the departure airport.
+     * @param to the IATA code of the arrival airport.
+     * @param notBefore the earliest time the first flight may leave.
+     * @param maxLegs the maximum number of flights.
+     * @param minConnectionMinutes the minimum time between the arrival of a flight and the departure of the next.
+     * @return the itinerary, or null if there is none.
+     */
+    public Itinerary cheapest(String from, String to, LocalDateTime notBefore, int maxLegs, int minConnectionMinutes) {
+        Integer origin = indexByCode.get(from);
+        Integer destination = indexByCode.get(to);
+        if (origin == null || destination == null || maxLegs <= 0 || origin.equals(destination)) {
+            return null;
+        }
+
+        // A state is a flight taken as a given leg: (leg - 1) * m + flight
+        int m = target.length;
+        Workspace ws = workspaces.get();
+        ws.reset(maxLegs * m);
+
+        for (int e = firstDepartureAfter(origin, FlightTimes.toMinutes(notBefore)); e < firstEdge[origin + 1]; e++) {
+            if (price[e] < ws.best(e)) {
+                ws.improve(e, price[e], e, -1);
+                ws.push(e, price[e]);
+            }
+        }
+        while (ws.size > 0) {
+            int state = ws.pop();
+            int legs = state / m + 1;
+            int flight = state % m;
+            double cost = ws.best(state);
+            if (ws.isSettled(state)) {
+                continue;
+            }
+            ws.settle(state);
+            if (target[flight] == destination) {
+                return itinerary(ws, state);
+            }
+            if (legs == maxLegs || dominated(ws, flight, legs - 1, m, cost)) {
+                continue;
+            }
+
+            int airport = target[flight];
+            for (int e = firstDepartureAfter(airport, arrival[flight] + minConnectionMinutes); e < firstEdge[airport + 1]; e++) {
+                int next = legs * m + e;
+                double nextCost = cost + price[e];
+                if (nextCost < ws.best(next)) {
+                    ws.improve(next, nextCost, e, state);
+                    ws.push(next, nextCost);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a node was already settled with fewer legs at no greater cost, in which case every
+     * extension of the current state is matched by an extension of that one.
+     *
+     * @param ws the workspace of the query.
+     * @param node the airport or flight of the state.
+     * @param layer the layer of the state, i.e. its number of legs, counted from zero.
+     * @param layerSize the number of states per layer.
+     * @param cost the cost of the state.
+     * @return whether the state can be skipped.
+     */
+    private static boolean dominated(Workspace ws, int node, int layer, int layerSize, double cost) {
+        for (int fewer = 0; fewer < layer; fewer++) {
+            int state = fewer * layerSize + node;
+            if (ws.isSettled(state) && ws.best(state) <= cost) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Rebuilds the itinerary ending in the given state.
+     *
+     * @param ws the workspace of the query.
+     * @param state the final state.
+     * @return the itinerary.
+     */
+    private Itinerary itinerary(Workspace ws, int state) {
+        List<Leg> legs = new ArrayList<>();
+        for (int s = state; s >= 0 && ws.edge[s] >= 0; s = ws.parent[s]) {
+            int e = ws.edge[s];
+            legs.add(new Leg(flightIds[e], codes[source[e]], codes[target[e]], FlightTimes.toDateTime(departure[e]), FlightTimes.toDateTime(arrival[e]), price[e]));
+        }
+        Collections.reverse(legs);
+        return new Itinerary(legs);
+    }
+
+    /**
+     * Finds the first flight of an airport departing at or after the given time.
+     *
+     * @param airport the index of the airport.
+     * @param minute the time, in minutes since the epoch.
+     * @return the index of the flight, or the end of the airport's range if none departs that late.
+     */
+    private int firstDepartureAfter(int airport, int minute) {
+        int low = firstEdge[airport];
+        int high = firstEdge[airport + 1];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departure[mid] < minute) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * A lower bound of the minutes needed to fly between two airports, or 0 if their position is unknown.
+     *
+     * @param from the index of the first airport.
+     * @param to the index of the second airport.
+     * @return the great-circle distance divided by the fastest flight of the network.
+     */
+    private double heuristic(int from, int to) {
+        double distance = distanceKm(from, to);
+        return Double.isNaN(distance) || maxSpeedKmPerMinute <= 0 ? 0 : distance / maxSpeedKmPerMinute;
+    }
+
+    /**
+     * Computes the great-circle distance between two airports with the haversine formula.
+     *
+     * @param from the index of the first airport.
+     * @param to the index of the second airport.
+     * @return the distance in kilometres, or NaN if either position is unknown.
+     */
+    private double distanceKm(int from, int to) {
+        double dLat = latitude[to] - latitude[from];
+        double dLon = longitude[to] - longitude[from];
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(latitude[from]) * Math.cos(latitude[to]) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * GeoPoints.EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Parses a {@code Geo_Point} such as {@code "45.6300; 8.7231"}.
+     *
+     * @param value the field value.
+     * @return latitude and longitude in radians, NaN if missing or unreadable.
+     */
+    private static double[] parseGeoPoint(Object value) {
+        double[] point = value instanceof String text ? GeoPoints.parse(text) : null;
+        return point == null
+                ? new double[]{Double.NaN, Double.NaN}
+                : new double[]{Math.toRadians(point[0]), Math.toRadians(point[1])};
+    }
+
+    /**
+     * Loads the network of the Airports database and prints the cheapest and the earliest itinerary between
+     * two airports, with the time each query takes once the network is in memory.
+     *
+     * @param args optional departure and arrival IATA codes, maximum legs and minimum connection minutes.
+     */
+    public static void main(String[] args) {
+        String from = args.length > 0 ? args[0] : "MXP";
+        String to = args.length > 1 ? args[1] : "PMV";
+        int maxLegs = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        int minConnectionMinutes = args.length > 3 ? Integer.parseInt(args[3]) : 60;
+
+        try (ConnectionRegistry registry = ConnectionRegistry.load()) {
+            long start = System.nanoTime();
+            FlightNetwork network = load(registry.getClient(ConnectionRegistry.SEARCH)
+                    .getDatabase("Airports").getCollection("airportCollection"));
+            System.out.printf("Loaded %d airports and %d flights in %d ms%n",
+                    network.airports(), network.flights(), (System.nanoTime() - start) / 1_000_000);
+
+            LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+            start = System.nanoTime();
+            Itinerary cheapest = network.cheapest(from, to, now, maxLegs, minConnectionMinutes);
+            System.out.printf("Cheapest %s -> %s in %d us: %s%n", from, to, (System.nanoTime() - start) / 1000, cheapest);
+            start = System.nanoTime();
+            Itinerary earliest = network.earliestArrival(from, to, now, maxLegs, minConnectionMinutes);
+            System.out.printf("Earliest %s -> %s in %d us: %s%n", from, to, (System.nanoTime() - start) / 1000, earliest);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Per-thread search buffers: the best cost, incoming flight and parent of every state, and a binary heap
+     * of states by priority. A generation stamp marks the entries written by the current query, so that the
+     * buffers never need clearing.
+     */
+    private static final class Workspace {
+        double[] cost = new double[0];
+        int[] edge = new int[0];
+        int[] parent = new int[0];
+        int[] stamp = new int[0];
+        int[] settled = new int[0];
+        int generation;
+
+        int[] heapState = new int[64];
+        double[] heapKey = new double[64];
+        int size;
+
+        void reset(int states) {
+            if (stamp.length < states) {
+                cost = new double[states];
+                edge = new int[states];
+                parent = new int[states];
+                stamp = new int[states];
+                settled = new int[states];
+                generation = 0;
+            }
+            if (++generation == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                Arrays.fill(settled, 0);
+                generation = 1;
+            }
+            size = 0;
+        }
+
+        double best(int state) {
+            return stamp[state] == generation ? cost[state] : Double.POSITIVE_INFINITY;
+        }
+
+        void improve(int state, double value, int viaEdge, int fromState) {
+            stamp[state] = generation;
+            cost[state] = value;
+            edge[state] = viaEdge;
+            parent[state] = fromState;
+        }
+
+        boolean isSettled(int state) {
+            return settled[state] == generation;
+        }
+
+        void settle(int state) {
+            settled[state] = generation;
+        }
+
+        void push(int state, double key) {
+            if (size == heapState.length) {
+                heapState = Arrays.copyOf(heapState, size * 2);
+                heapKey = Arrays.copyOf(heapKey, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int up = (i - 1) >>> 1;
+                if (heapKey[up] <= key) {
+                    break;
+                }
+                heapState[i] = heapState[up];
+                heapKey[i] = heapKey[up];
+                i = up;
+            }
+            heapState[i] = state;
+            heapKey[i] = key;
+        }
+
+        int pop() {
+            int top = heapState[0];
+            int lastState = heapState[--size];
+            double lastKey = heapKey[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heapKey[child + 1] < heapKey[child]) {
+                    child++;
+                }
+                if (heapKey[child] >= lastKey) {
+                    break;
+                }
+                heapState[i] = heapState[child];
+                heapKey[i] = heapKey[child];
+                i = child;
+            }
+            heapState[i] = lastState;
+            heapKey[i] = lastKey;
+            return top;
+        }
+    }
+}
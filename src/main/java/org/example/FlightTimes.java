@@ -0,0 +1,118 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Conversions between the text fields of a flight, i.e. {@code Day}, {@code Hour} and {@code Duration},
+ * and the integers {@link Flight} keeps in memory: the departure in minutes since the epoch, reading the
+ * day and hour as UTC, and the duration in minutes.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public final class FlightTimes {
+
+    /**
+     * Departure minute of a flight whose {@code Day} or {@code Hour} is missing or unreadable.
+     */
+    public static final int UNKNOWN_DEPARTURE = Integer.MIN_VALUE;
+
+    private static final Pattern HOURS = Pattern.compile("(\\d+)\\s*h");
+    private static final Pattern MINUTES = Pattern.compile("(\\d+)\\s*m");
+
+    private FlightTimes() {
+    }
+
+    /**
+     * Parses the departure time of a flight.
+     *
+     * @param day the {@code Day}, e.g. {@code 2024-07-05}.
+     * @param hour the {@code Hour}, e.g. {@code 14:30}.
+     * @return minutes since the epoch, or {@link #UNKNOWN_DEPARTURE} if unreadable.
+     */
+    public static int parseDeparture(String day, String hour) {
+        if (day == null || hour == null) {
+            return UNKNOWN_DEPARTURE;
+        }
+        try {
+            return toMinutes(LocalDate.parse(day).atTime(LocalTime.parse(hour)));
+        } catch (DateTimeParseException e) {
+            return UNKNOWN_DEPARTURE;
+        }
+    }
+
+    /**
+     * Parses a {@code Duration} such as {@code "2 hours"} or {@code "1h 45m"}.
+     *
+     * @param duration the field value.
+     * @return the duration in minutes, 0 if unreadable.
+     */
+    public static int parseDurationMinutes(String duration) {
+        if (duration == null) {
+            return 0;
+        }
+        int minutes = 0;
+        Matcher hours = HOURS.matcher(duration);
+        if (hours.find()) {
+            minutes += Integer.parseInt(hours.group(1)) * 60;
+        }
+        Matcher mins = MINUTES.matcher(duration);
+        if (mins.find()) {
+            minutes += Integer.parseInt(mins.group(1));
+        }
+        return minutes;
+    }
+
+    /**
+     * @param departureMinute minutes since the epoch.
+     * @return the {@code Day}, e.g. {@code 2024-07-05}, or null if unknown.
+     */
+    public static String formatDay(int departureMinute) {
+        return departureMinute == UNKNOWN_DEPARTURE ? null : toDateTime(departureMinute).toLocalDate().toString();
+    }
+
+    /**
+     * @param departureMinute minutes since the epoch.
+     * @return the {@code Hour}, e.g. {@code 14:30}, or null if unknown.
+     */
+    public static String formatHour(int departureMinute) {
+        return departureMinute == UNKNOWN_DEPARTURE ? null : toDateTime(departureMinute).toLocalTime().toString();
+    }
+
+    /**
+     * Formats a duration the way {@code Modeling} does for whole hours, e.g. {@code "7 hours"}, and as
+     * {@code "1h 45m"} otherwise, both of which {@link #parseDurationMinutes} reads back.
+     *
+     * @param minutes the duration in minutes.
+     * @return the {@code Duration}, or null if the duration is unknown.
+     */
+    public static String formatDuration(int minutes) {
+        if (minutes <= 0) {
+            return null;
+        }
+        return minutes % 60 == 0 ? minutes / 60 + " hours" : minutes / 60 + "h " + minutes % 60 + "m";
+    }
+
+    /**
+     * @param time a date and time, read as UTC.
+     * @return minutes since the epoch.
+     */
+    public static int toMinutes(LocalDateTime time) {
+        return (int) (time.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+
+    /**
+     * @param minutes minutes since the epoch.
+     * @return the date and time in UTC.
+     */
+    public static LocalDateTime toDateTime(int minutes) {
+        return LocalDateTime.ofEpochSecond(minutes * 60L, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,92 @@
+package org.example;
+
+import org.bson.Document;
+
+import java.util.Arrays;
+
+/**
+ * The {@code GeoPoints} class converts the {@code Geo_Point} strings of the data set, such as
+ * {@code "51.1075552; 16.8756697"} (latitude first), into GeoJSON points that a {@code 2dsphere} index can
+ * serve, and computes great-circle distances.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public final class GeoPoints {
+
+    /**
+     * Mean radius of the Earth, in kilometres.
+     */
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private GeoPoints() {
+    }
+
+    /**
+     * Parses a {@code Geo_Point} string.
+     *
+     * @param geoPoint the string, latitude and longitude separated by a semicolon.
+     * @return latitude and longitude in degrees, or null if missing, unreadable or out of range.
+     */
+    public static double[] parse(String geoPoint) {
+        if (geoPoint == null) {
+            return null;
+        }
+        String[] parts = geoPoint.split(";");
+        if (parts.length != 2) {
+            return null;
+        }
+        try {
+            double latitude = Double.parseDouble(parts[0].trim());
+            double longitude = Double.parseDouble(parts[1].trim());
+            if (Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+                return null;
+            }
+            return new double[]{latitude, longitude};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Converts a {@code Geo_Point} string to a GeoJSON point. GeoJSON lists the longitude first.
+     *
+     * @param geoPoint the string, latitude and longitude separated by a semicolon.
+     * @return the {@code {type: "Point", coordinates: [longitude, latitude]}} document, or null if unreadable.
+     */
+    public static Document toGeoJson(String geoPoint) {
+        double[] point = parse(geoPoint);
+        return point == null ? null : toGeoJson(point[0], point[1]);
+    }
+
+    /**
+     * Builds a GeoJSON point.
+     *
+     * @param latitude the latitude in degrees.
+     * @param longitude the longitude in degrees.
+     * @return the {@code {type: "Point", coordinates: [longitude, latitude]}} document.
+     */
+    public static Document toGeoJson(double latitude, double longitude) {
+        return new Document("type", "Point").append("coordinates", Arrays.asList(longitude, latitude));
+    }
+
+    /**
+     * Computes the great-circle distance between two points with the haversine formula.
+     *
+     * @param latitude1 the latitude of the first point, in degrees.
+     * @param longitude1 the longitude of the first point, in degrees.
+     * @param latitude2 the latitude of the second point, in degrees.
+     * @param longitude2 the longitude of the second point, in degrees.
+     * @return the distance in kilometres.
+     */
+    public static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double lat1 = Math.toRadians(latitude1);
+        double lat2 = Math.toRadians(latitude2);
+        double dLat = lat2 - lat1;
+        double dLon = Math.toRadians(longitude2 - longitude1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(lat1) * Math.cos(lat2) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
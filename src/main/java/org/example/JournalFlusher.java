@@ -0,0 +1,227 @@
+package org.example;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@code JournalFlusher} class writes the bookings of a {@link BookingJournal} to the airport collection
+ * behind the bookings themselves: a background thread takes every record on disk, up to a batch size, and
+ * writes all of their seats with one unordered {@code bulkWrite}, so that many bookings share one round trip.
+ * The records are released from the journal only once the write succeeded; if it fails, e.g. while mongos
+ * is unreachable, the same records are written again after a growing pause, and bookings keep being
+ * accepted until the journal is full.
+ *
+ * <p>Each seat is written with a conditional update that matches while the seat is available to the person,
+ * see {@link Seat#availableTo}, or already booked by the same person. Writing a seat again, after a failed
+ * batch or after a restart, therefore matches without changing anything: the write is idempotent for a
+ * given flight and seat ID. A seat that matches neither way was booked or held for someone else, e.g. by
+ * another process, after the journal accepted it: the booking is lost, and is logged as a warning and to
+ * the {@link BookingAuditLog} as {@link LatencyMetrics#BOOKING_LOST}.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class JournalFlusher implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalFlusher.class);
+
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final long MIN_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 5_000;
+
+    private final BookingJournal journal;
+    private final MongoCollection<Document> collection;
+    private final int batchSize;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong lost = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * Starts writing the journal to the collection, beginning with the records a previous run left behind.
+     *
+     * @param journal the journal, which this flusher becomes the only consumer of and closes.
+     * @param collection the airport collection.
+     * @param batchSize the number of seats after which no further record is added to a write.
+     */
+    public JournalFlusher(BookingJournal journal, MongoCollection<Document> collection, int batchSize) {
+        this.journal = journal;
+        this.collection = collection;
+        this.batchSize = batchSize;
+        this.thread = new Thread(this::run, "journal-flusher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * @return the journal written by this flusher.
+     */
+    public BookingJournal getJournal() {
+        return journal;
+    }
+
+    private void run() {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (running || journal.backlog() > 0) {
+            List<BookingJournal.Entry> entries = journal.pending(batchSize);
+            if (entries.isEmpty()) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_NANOS);
+                continue;
+            }
+            try {
+                flush(entries);
+                journal.acknowledge();
+                backoff = MIN_BACKOFF_MILLIS;
+            } catch (RuntimeException e) {
+                // Any failure, not only a MongoException, is retried: if the thread died, bookings would keep
+                // being accepted into a journal that nothing writes
+                failures.incrementAndGet();
+                if (!running) {
+                    logger.warn("Leaving {} bytes of bookings in the journal for the next run", journal.backlog(), e);
+                    return;
+                }
+                logger.warn("Could not write {} journaled seats, retrying in {} ms", entries.size(), backoff, e);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoff));
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private void flush(List<BookingJournal.Entry> entries) {
+        long start = System.nanoTime();
+        Date now = new Date();
+        List<WriteModel<Document>> models = new ArrayList<>(entries.size());
+        for (BookingJournal.Entry entry : entries) {
+            models.add(new UpdateOneModel<>(
+                    Filters.elemMatch("Flights", Filters.and(
+                            Filters.eq("ID", entry.flightID()),
+                            Filters.elemMatch("Seats", Filters.and(
+                                    Filters.eq("ID", entry.seatID()),
+                                    writableBy("", entry.documentInfo(), now)
+                            ))
+                    )),
+                    Updates.combine(
+                            Updates.set("Flights.$[flight].Seats.$[seat].Status", "Booked"),
+                            Updates.unset("Flights.$[flight].Seats.$[seat].Hold_Expires"),
+                            Updates.set("Flights.$[flight].Seats.$[seat].Name", entry.name()),
+                            Updates.set("Flights.$[flight].Seats.$[seat].Surname", entry.surname()),
+                            Updates.set("Flights.$[flight].Seats.$[seat].Document_Info", entry.documentInfo()),
+                            Updates.set("Flights.$[flight].Seats.$[seat].Date_of_Birth", entry.dateOfBirth()),
+                            Updates.set("Flights.$[flight].Seats.$[seat].Balance", entry.balance())
+                    ),
+                    new UpdateOptions().arrayFilters(Arrays.asList(
+                            Filters.eq("flight.ID", entry.flightID()),
+                            Filters.and(Filters.eq("seat.ID", entry.seatID()), writableBy("seat.", entry.documentInfo(), now))
+                    ))
+            ));
+        }
+        BulkWriteResult result = collection.bulkWrite(models, new BulkWriteOptions().ordered(false));
+        batches.incrementAndGet();
+        written.addAndGet(result.getModifiedCount());
+        replayed.addAndGet(result.getMatchedCount() - result.getModifiedCount());
+        if (result.getMatchedCount() < entries.size()) {
+            reportLost(entries, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Matches a seat the booking of a person can be written to: a seat available to the person, or one
+     * already booked by the person, which a replay finds.
+     *
+     * @param prefix the prefix of the seat fields, e.g. {@code seat.} in an array filter.
+     */
+    private static Bson writableBy(String prefix, String documentInfo, Date now) {
+        return Filters.or(
+                Seat.availableTo(prefix, documentInfo, now),
+                Filters.and(Filters.eq(prefix + "Status", "Booked"), Filters.eq(prefix + "Document_Info", documentInfo))
+        );
+    }
+
+    /**
+     * Finds the seats of a batch that some write did not match, i.e. that are not booked by the person of
+     * their entry, and reports them as lost. Only called when a batch matched fewer seats than it wrote.
+     */
+    private void reportLost(List<BookingJournal.Entry> entries, long latencyNanos) {
+        Map<String, List<Document>> seatsByFlight = new HashMap<>();
+        for (BookingJournal.Entry entry : entries) {
+            List<Document> seats = seatsByFlight.computeIfAbsent(entry.flightID(), this::findSeats);
+            boolean booked = seats.stream().anyMatch(seat -> entry.seatID().equals(seat.getString("ID"))
+                    && "Booked".equals(seat.getString("Status"))
+                    && Objects.equals(entry.documentInfo(), seat.getString("Document_Info")));
+            if (!booked) {
+                lost.incrementAndGet();
+                logger.warn("Lost the journaled booking of seat {} of flight {} for {}: the seat was taken before it was written",
+                        entry.seatID(), entry.flightID(), entry.documentInfo());
+                BookingAuditLog.record(entry.flightID(), entry.seatID(), LatencyMetrics.BOOKING_LOST, -1, latencyNanos);
+            }
+        }
+    }
+
+    /**
+     * @return the seats of a flight, empty if the flight does not exist.
+     */
+    private List<Document> findSeats(String flightID) {
+        Document airport = collection.find(Filters.eq("Flights.ID", flightID))
+                .projection(Projections.elemMatch("Flights", Filters.eq("ID", flightID)))
+                .first();
+        if (airport == null) {
+            return Collections.emptyList();
+        }
+        List<Document> flights = airport.getList("Flights", Document.class, Collections.emptyList());
+        return flights.isEmpty() ? Collections.emptyList() : flights.get(0).getList("Seats", Document.class, Collections.emptyList());
+    }
+
+    /**
+     * @return the batches, seats written, seats found already written, lost bookings and failed writes so far.
+     */
+    public String report() {
+        return String.format("%d batches, %d seats written, %d seats already written, %d bookings lost, %d failed writes, %d bytes pending",
+                batches.get(), written.get(), replayed.get(), lost.get(), failures.get(), journal.backlog());
+    }
+
+    /**
+     * Writes the records left in the journal, unless the collection cannot be reached, and closes the journal.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+    }
+}
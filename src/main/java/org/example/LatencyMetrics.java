@@ -0,0 +1,165 @@
+package org.example;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * The {@code LatencyMetrics} class records latency histograms, one per driver command (as a
+ * {@link CommandListener}) and one per business operation or stage timed by the application.
+ * Recording is lock-free and can happen from any thread; {@link #report()} returns the p50/p99/p999
+ * of everything recorded since the previous report.
+ *
+ * <p>Command histograms are named {@code command.<name>}, e.g. {@code command.find} or {@code command.update}.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class LatencyMetrics implements CommandListener {
+
+    /**
+     * Flight search, i.e. {@code getFlightsFromAirport}.
+     */
+    public static final String SEARCH = "search";
+
+    /**
+     * Seat listing, i.e. {@code getAvailableSeats}.
+     */
+    public static final String SEAT_LISTING = "seatListing";
+
+    /**
+     * Booking that reserved the seat.
+     */
+    public static final String BOOKING_SUCCESS = "booking.success";
+
+    /**
+     * Booking that failed because the seat was already taken.
+     */
+    public static final String BOOKING_CONFLICT = "booking.conflict";
+
+    /**
+     * Booking refused for any other reason, e.g. an unknown flight or insufficient balance.
+     */
+    public static final String BOOKING_REJECTED = "booking.rejected";
+
+    /**
+     * Booking accepted from the journal whose seat was taken by someone else before it reached the database.
+     */
+    public static final String BOOKING_LOST = "booking.lost";
+
+    /**
+     * Time a booking waited for its flight lock.
+     */
+    public static final String BOOKING_LOCK_WAIT = "booking.lockWait";
+
+    /**
+     * Time a booking spent reading the flight.
+     */
+    public static final String BOOKING_FIND = "booking.find";
+
+    /**
+     * Time a booking spent in the conditional update.
+     */
+    public static final String BOOKING_UPDATE = "booking.update";
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final ConcurrentMap<String, Recorder> recorders = new ConcurrentHashMap<>();
+
+    /**
+     * Records one measurement.
+     *
+     * @param name the name of the histogram.
+     * @param nanos the measured latency in nanoseconds.
+     */
+    public void record(String name, long nanos) {
+        recorders.computeIfAbsent(name, key -> new Recorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS))
+                .recordValue(Math.min(Math.max(nanos, 0), HIGHEST_TRACKABLE_NANOS));
+    }
+
+    /**
+     * Records the time elapsed since the given {@link System#nanoTime()} value.
+     *
+     * @param name the name of the histogram.
+     * @param startNanos the start of the measurement.
+     * @return the current {@link System#nanoTime()}, to chain consecutive stages.
+     */
+    public long recordSince(String name, long startNanos) {
+        long now = System.nanoTime();
+        record(name, now - startNanos);
+        return now;
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        record("command." + event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        record("command." + event.getCommandName() + ".failed", event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Takes the measurements recorded since the previous call and formats count, p50, p99, p999 and max
+     * in microseconds for every histogram, sorted by name.
+     *
+     * @return the report, one histogram per line.
+     */
+    public String report() {
+        Map<String, Histogram> intervals = new TreeMap<>();
+        recorders.forEach((name, recorder) -> intervals.put(name, recorder.getIntervalHistogram()));
+
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Histogram> entry : intervals.entrySet()) {
+            Histogram histogram = entry.getValue();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            sb.append(String.format("%-26s count=%-8d p50=%9.1fus p99=%9.1fus p999=%9.1fus max=%9.1fus%n",
+                    entry.getKey(),
+                    histogram.getTotalCount(),
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Hands a {@link #report()} to the consumer at a fixed interval, on a daemon thread.
+     *
+     * @param period the interval between reports.
+     * @param unit the unit of the interval.
+     * @param consumer the consumer of every non-empty report.
+     * @return the scheduler, to be shut down when reports are no longer needed.
+     */
+    public ScheduledExecutorService reportEvery(long period, TimeUnit unit, Consumer<String> consumer) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "latency-metrics-report");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            String report = report();
+            if (!report.isEmpty()) {
+                consumer.accept(report);
+            }
+        }, period, period, unit);
+        return scheduler;
+    }
+}
@@ -0,0 +1,218 @@
+package org.example;
+
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadConcernLevel;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.MongoCollection;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code OperationProfiles} class holds the read preference, read concern and write concern of every
+ * kind of operation of {@code Transactions}, so that they are chosen in one place instead of inheriting
+ * the defaults of the client. Searches and seat listings tolerate slightly stale data and may be served by
+ * secondaries; bookings must read and write the primary and be acknowledged by a majority.
+ *
+ * <p>The built-in profiles are:
+ * <ul>
+ * <li>{@value #SEARCH}, {@value #SEAT_LISTING}: {@code secondaryPreferred}, read concern {@code local}.
+ * <li>{@value #BOOKING}: {@code primary}, read concern {@code local}, write concern {@code majority}.
+ * </ul>
+ *
+ * <p>Each can be overridden in {@code connections.properties} as {@code profile.<operation>.<key>}:
+ * <ul>
+ * <li>{@code readPreference}: e.g. {@code primary}, {@code secondaryPreferred} or {@code nearest}.
+ * <li>{@code maxStalenessSeconds}: how far behind the primary a secondary may be to serve reads.
+ * <li>{@code readConcern}: e.g. {@code local}, {@code majority} or {@code available}.
+ * <li>{@code writeConcern}: {@code majority} or a number of members, e.g. {@code 1}.
+ * <li>{@code writeConcern.timeoutMillis}: how long to wait for the write concern.
+ * </ul>
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class OperationProfiles {
+
+    /**
+     * Profile of flight searches, i.e. {@code getFlightsFromAirport}.
+     */
+    public static final String SEARCH = LatencyMetrics.SEARCH;
+
+    /**
+     * Profile of seat listings, i.e. {@code getAvailableSeats}.
+     */
+    public static final String SEAT_LISTING = LatencyMetrics.SEAT_LISTING;
+
+    /**
+     * Profile of bookings: the read of the flight and the conditional update.
+     */
+    public static final String BOOKING = "booking";
+
+    private final Map<String, Profile> profiles = new ConcurrentHashMap<>();
+
+    /**
+     * The settings applied to one kind of operation. A null field keeps the setting of the collection.
+     *
+     * @param readPreference the read preference.
+     * @param readConcern the read concern.
+     * @param writeConcern the write concern.
+     */
+    public record Profile(ReadPreference readPreference, ReadConcern readConcern, WriteConcern writeConcern) {
+
+        /**
+         * Returns a view of the collection with the settings of this profile.
+         *
+         * @param collection the collection.
+         * @param <T> the document type of the collection.
+         * @return the collection with this read preference, read concern and write concern.
+         */
+        public <T> MongoCollection<T> apply(MongoCollection<T> collection) {
+            MongoCollection<T> result = collection;
+            if (readPreference != null) {
+                result = result.withReadPreference(readPreference);
+            }
+            if (readConcern != null) {
+                result = result.withReadConcern(readConcern);
+            }
+            if (writeConcern != null) {
+                result = result.withWriteConcern(writeConcern);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Constructs the built-in profiles.
+     */
+    public OperationProfiles() {
+        profiles.put(SEARCH, new Profile(ReadPreference.secondaryPreferred(), ReadConcern.LOCAL, null));
+        profiles.put(SEAT_LISTING, new Profile(ReadPreference.secondaryPreferred(), ReadConcern.LOCAL, null));
+        profiles.put(BOOKING, new Profile(ReadPreference.primary(), ReadConcern.LOCAL, WriteConcern.MAJORITY));
+    }
+
+    /**
+     * Constructs the built-in profiles, overridden by the {@code profile.<operation>.<key>} settings.
+     *
+     * @param config the settings, usually those of {@code connections.properties}.
+     */
+    public OperationProfiles(Properties config) {
+        this();
+        for (String operation : new String[]{SEARCH, SEAT_LISTING, BOOKING}) {
+            Profile profile = profiles.get(operation);
+            String prefix = "profile." + operation + ".";
+            profiles.put(operation, new Profile(
+                    readPreference(config, prefix, profile.readPreference()),
+                    readConcern(config, prefix, profile.readConcern()),
+                    writeConcern(config, prefix, profile.writeConcern())));
+        }
+    }
+
+    /**
+     * @param operation one of {@link #SEARCH}, {@link #SEAT_LISTING} or {@link #BOOKING}.
+     * @return the profile of the operation.
+     */
+    public Profile get(String operation) {
+        Profile profile = profiles.get(operation);
+        if (profile == null) {
+            throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+        return profile;
+    }
+
+    /**
+     * Replaces the profile of an operation, e.g. to compare read preferences in a benchmark.
+     *
+     * @param operation one of {@link #SEARCH}, {@link #SEAT_LISTING} or {@link #BOOKING}.
+     * @param profile the new profile.
+     */
+    public void set(String operation, Profile profile) {
+        get(operation);
+        profiles.put(operation, profile);
+    }
+
+    /**
+     * Returns a view of the collection with the settings of the given operation. Views are cheap, immutable
+     * copies that share the client and its connection pool.
+     *
+     * @param operation one of {@link #SEARCH}, {@link #SEAT_LISTING} or {@link #BOOKING}.
+     * @param collection the collection.
+     * @param <T> the document type of the collection.
+     * @return the collection to run the operation on.
+     */
+    public <T> MongoCollection<T> apply(String operation, MongoCollection<T> collection) {
+        return get(operation).apply(collection);
+    }
+
+    /**
+     * Reads the read preference of a profile, with its optional maximum staleness.
+     *
+     * @param config the settings.
+     * @param prefix the {@code profile.<operation>.} prefix of the keys.
+     * @param defaultValue the value used when the key is missing.
+     * @return the read preference.
+     */
+    private static ReadPreference readPreference(Properties config, String prefix, ReadPreference defaultValue) {
+        String name = config.getProperty(prefix + "readPreference");
+        if (name == null || name.isBlank()) {
+            return defaultValue;
+        }
+        String staleness = config.getProperty(prefix + "maxStalenessSeconds");
+        try {
+            if (staleness == null || staleness.isBlank()) {
+                return ReadPreference.valueOf(name.trim());
+            }
+            return ReadPreference.valueOf(name.trim(), Collections.emptyList(),
+                    Long.parseLong(staleness.trim()), TimeUnit.SECONDS);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value for " + prefix + "readPreference: " + name, e);
+        }
+    }
+
+    /**
+     * Reads the read concern level of a profile.
+     *
+     * @param config the settings.
+     * @param prefix the {@code profile.<operation>.} prefix of the keys.
+     * @param defaultValue the value used when the key is missing.
+     * @return the read concern.
+     */
+    private static ReadConcern readConcern(Properties config, String prefix, ReadConcern defaultValue) {
+        String level = config.getProperty(prefix + "readConcern");
+        if (level == null || level.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return new ReadConcern(ReadConcernLevel.fromString(level.trim()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value for " + prefix + "readConcern: " + level, e);
+        }
+    }
+
+    /**
+     * Reads the write concern of a profile, with its optional timeout.
+     *
+     * @param config the settings.
+     * @param prefix the {@code profile.<operation>.} prefix of the keys.
+     * @param defaultValue the value used when the key is missing.
+     * @return the write concern, or null to keep the one of the collection.
+     */
+    private static WriteConcern writeConcern(Properties config, String prefix, WriteConcern defaultValue) {
+        String w = config.getProperty(prefix + "writeConcern");
+        String timeout = config.getProperty(prefix + "writeConcern.timeoutMillis");
+        WriteConcern writeConcern = defaultValue;
+        if (w != null && !w.isBlank()) {
+            w = w.trim();
+            writeConcern = w.chars().allMatch(Character::isDigit) ? new WriteConcern(Integer.parseInt(w)) : new WriteConcern(w);
+        }
+        if (writeConcern != null && timeout != null && !timeout.isBlank()) {
+            writeConcern = writeConcern.withWTimeout(Long.parseLong(timeout.trim()), TimeUnit.MILLISECONDS);
+        }
+        return writeConcern;
+    }
+}
@@ -0,0 +1,126 @@
+package org.example;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code PoolStatistics} class is a {@link ConnectionPoolListener} that keeps running totals of the
+ * connection pool activity of one MongoClient, summed over the pools of every server the client talks to.
+ * It is registered by {@link ConnectionRegistry} on every client it creates.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class PoolStatistics implements ConnectionPoolListener {
+    private final String name;
+    private final AtomicLong openConnections = new AtomicLong();
+    private final AtomicLong checkedOutConnections = new AtomicLong();
+    private final AtomicLong waitingRequests = new AtomicLong();
+    private final LongAdder totalCheckOuts = new LongAdder();
+    private final LongAdder failedCheckOuts = new LongAdder();
+
+    /**
+     * Constructs the statistics of a named client.
+     *
+     * @param name the name of the client in the registry.
+     */
+    public PoolStatistics(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        waitingRequests.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        waitingRequests.decrementAndGet();
+        checkedOutConnections.incrementAndGet();
+        totalCheckOuts.increment();
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        waitingRequests.decrementAndGet();
+        failedCheckOuts.increment();
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        checkedOutConnections.decrementAndGet();
+    }
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event) {
+        openConnections.incrementAndGet();
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event) {
+        openConnections.decrementAndGet();
+    }
+
+    /**
+     * @return the name of the client in the registry.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the number of connections currently open.
+     */
+    public long getOpenConnections() {
+        return openConnections.get();
+    }
+
+    /**
+     * @return the number of connections currently in use.
+     */
+    public long getCheckedOutConnections() {
+        return checkedOutConnections.get();
+    }
+
+    /**
+     * @return the number of operations currently waiting for a connection.
+     */
+    public long getWaitingRequests() {
+        return waitingRequests.get();
+    }
+
+    /**
+     * @return the number of connections checked out since the client was created.
+     */
+    public long getTotalCheckOuts() {
+        return totalCheckOuts.sum();
+    }
+
+    /**
+     * @return the number of check outs that failed, e.g. because the maximum wait time elapsed.
+     */
+    public long getFailedCheckOuts() {
+        return failedCheckOuts.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStatistics{" +
+                "name='" + name + '\'' +
+                ", openConnections=" + getOpenConnections() +
+                ", checkedOutConnections=" + getCheckedOutConnections() +
+                ", waitingRequests=" + getWaitingRequests() +
+                ", totalCheckOuts=" + getTotalCheckOuts() +
+                ", failedCheckOuts=" + getFailedCheckOuts() +
+                '}';
+    }
+}
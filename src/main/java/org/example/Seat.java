@@ -1,19 +1,33 @@
 package org.example;
 
+import com.mongodb.client.model.Filters;
 import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.Date;
 
 import javax.print.Doc;
 
 public class Seat {
-    private String status;
+    private SeatStatus status;
     private String id;
     private String name;
     private String surname;
     private String documentInfo;
     private String dateOfBirth;
-    private int balance;
+    private double balance;
+    private long holdExpires;
+
+    public Seat(String status, String id, String name, String surname, String documentInfo, String dateOfBirth, double balance) {
+        this(SeatStatus.fromLabel(status), id, name, surname, documentInfo, dateOfBirth, balance);
+    }
 
-    public Seat(String status, String id, String name, String surname, String documentInfo, String dateOfBirth, int balance) {
+    public Seat(SeatStatus status, String id, String name, String surname, String documentInfo, String dateOfBirth, double balance) {
+        this(status, id, name, surname, documentInfo, dateOfBirth, balance, 0);
+    }
+
+    public Seat(SeatStatus status, String id, String name, String surname, String documentInfo, String dateOfBirth,
+                double balance, long holdExpires) {
         this.status = status;
         this.id = id;
         this.name = name;
@@ -21,28 +35,106 @@ public class Seat {
         this.documentInfo = documentInfo;
         this.dateOfBirth = dateOfBirth;
         this.balance = balance;
+        this.holdExpires = holdExpires;
+    }
+
+    public SeatStatus getStatus() {
+        return status;
+    }
+
+    public boolean isVacant() {
+        return status == SeatStatus.VACANT;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSurname() {
+        return surname;
+    }
+
+    public String getDocumentInfo() {
+        return documentInfo;
+    }
+
+    public String getDateOfBirth() {
+        return dateOfBirth;
+    }
+
+    public double getBalance() {
+        return balance;
+    }
+
+    /**
+     * @return the expiry of the hold in milliseconds since the epoch, 0 if the seat is not held.
+     */
+    public long getHoldExpires() {
+        return holdExpires;
+    }
+
+    /**
+     * A seat can be booked or held by a person if it is vacant, if the person holds it, or if its hold has
+     * expired.
+     *
+     * @param documentInfo the document of the person.
+     * @param nowMillis the current time in milliseconds since the epoch.
+     * @return true if the person can book or hold the seat.
+     */
+    public boolean isAvailableTo(String documentInfo, long nowMillis) {
+        return status == SeatStatus.VACANT
+                || status == SeatStatus.HELD && (holdExpires <= nowMillis || documentInfo != null && documentInfo.equals(this.documentInfo));
+    }
+
+    /**
+     * Matches a seat document that a person can book or hold: a vacant seat, a seat held by the person, or a
+     * seat whose hold has expired. This is the condition of {@link #isAvailableTo(String, long)}, for the
+     * conditional updates that write seats.
+     *
+     * @param prefix the prefix of the seat fields, e.g. {@code seat.} in an array filter, or empty.
+     * @param documentInfo the document of the person.
+     * @param now the current time.
+     * @return the filter.
+     */
+    public static Bson availableTo(String prefix, String documentInfo, Date now) {
+        return Filters.or(
+                Filters.eq(prefix + "Status", "Vacant"),
+                Filters.and(
+                        Filters.eq(prefix + "Status", "Held"),
+                        Filters.or(Filters.eq(prefix + "Document_Info", documentInfo), Filters.lt(prefix + "Hold_Expires", now))
+                )
+        );
     }
 
     @Override
     public String toString() {
         return "Seat{" +
-                "status='" + status + '\'' +
+                "status=" + status +
                 ", id='" + id + '\'' +
                 ", name='" + name + '\'' +
                 ", surname='" + surname + '\'' +
                 ", documentInfo='" + documentInfo + '\'' +
                 ", dateOfBirth='" + dateOfBirth + '\'' +
                 ", balance=" + balance +
+                (holdExpires == 0 ? "" : ", holdExpires=" + holdExpires) +
                 '}';
     }
 
     public Document getDocument() {
-        return new Document("status", this.status)
+        Document document = new Document("status", this.status == null ? null : this.status.label())
                 .append("id", this.id)
                 .append("name", this.name)
                 .append("surname", this.surname)
                 .append("documentInfo", this.documentInfo)
                 .append("dateOfBirth", this.dateOfBirth)
                 .append("balance", this.balance);
+        if (this.holdExpires != 0) {
+            document.append("holdExpires", new Date(this.holdExpires));
+        }
+        return document;
     }
 }
\ No newline at end of file
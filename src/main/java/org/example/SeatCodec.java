@@ -0,0 +1,79 @@
+package org.example;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+/**
+ * The {@code SeatCodec} class writes a {@link Seat} straight to a {@link BsonWriter} with the field names
+ * of {@link Seat#getDocument()}, and reads one straight from a {@link BsonReader}. Reading also accepts
+ * the field names written by {@code Modeling}, e.g. {@code Status} and {@code Document_Info}.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class SeatCodec implements Codec<Seat> {
+
+    @Override
+    public void encode(BsonWriter writer, Seat seat, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        if (seat.getStatus() != null) {
+            writer.writeString("status", seat.getStatus().label());
+        }
+        CodecSupport.writeString(writer, "id", seat.getId());
+        CodecSupport.writeString(writer, "name", seat.getName());
+        CodecSupport.writeString(writer, "surname", seat.getSurname());
+        CodecSupport.writeString(writer, "documentInfo", seat.getDocumentInfo());
+        CodecSupport.writeString(writer, "dateOfBirth", seat.getDateOfBirth());
+        writer.writeDouble("balance", seat.getBalance());
+        if (seat.getHoldExpires() != 0) {
+            writer.writeDateTime("holdExpires", seat.getHoldExpires());
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Seat decode(BsonReader reader, DecoderContext decoderContext) {
+        SeatStatus status = null;
+        String id = null;
+        String name = null;
+        String surname = null;
+        String documentInfo = null;
+        String dateOfBirth = null;
+        double balance = 0;
+        long holdExpires = 0;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "status", "Status" -> status = SeatStatus.fromLabel(CodecSupport.readString(reader));
+                case "id", "ID" -> id = CodecSupport.readString(reader);
+                case "name", "Name" -> name = CodecSupport.readString(reader);
+                case "surname", "Surname" -> surname = CodecSupport.readString(reader);
+                case "documentInfo", "Document_Info" -> documentInfo = CodecSupport.readString(reader);
+                case "dateOfBirth", "Date_of_Birth" -> dateOfBirth = CodecSupport.readString(reader);
+                case "balance", "Balance" -> balance = CodecSupport.readDouble(reader, 0);
+                case "holdExpires", "Hold_Expires" -> {
+                    if (reader.getCurrentBsonType() == BsonType.DATE_TIME) {
+                        holdExpires = reader.readDateTime();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new Seat(status, id, name, surname, documentInfo, dateOfBirth, balance, holdExpires);
+    }
+
+    @Override
+    public Class<Seat> getEncoderClass() {
+        return Seat.class;
+    }
+}
@@ -0,0 +1,493 @@
+package org.example;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Projections;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The {@code SeatInventory} class holds the state of every seat of every flight in memory, so that the
+ * decision of whether a booking succeeds takes a few nanoseconds and no lock.
+ *
+ * <p>The seats of a flight are the bits of a {@code long[]} bitmap, set when the seat is taken. Bookings
+ * and releases change a bit with a compare-and-set of its word through a {@link VarHandle}, retried only
+ * when another seat of the same 64 changed in between, so that any number of threads book concurrently
+ * and a seat is taken by exactly one of the threads racing for it. Seat IDs are mapped to bits with a
+ * binary search over the IDs of the flight, without a map per flight.
+ *
+ * <p>A seat held at load time is taken until its hold expires, and vacant from then on: the first booking
+ * after the expiry gets it by clearing the expiry of the seat with a compare-and-set, while its bit stays
+ * set. Holds placed after the load are not known to the inventory.
+ *
+ * <p>The inventory is the decision tier only: it must be loaded from the database, and a booking it grants
+ * still has to be written to the database, see {@code InMemoryBookingStore}.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class SeatInventory {
+
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle EXPIRIES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * The result of a booking attempt.
+     */
+    public enum Result {
+        /**
+         * The seat was vacant and is now taken by the caller.
+         */
+        BOOKED,
+        /**
+         * The seat, or one of the seats, was already taken.
+         */
+        TAKEN,
+        /**
+         * The flight or the seat is not in the inventory.
+         */
+        UNKNOWN
+    }
+
+    private final Map<String, FlightSeats> flights = new ConcurrentHashMap<>();
+    private final Map<String, String> flightByRoute = new ConcurrentHashMap<>();
+
+    /**
+     * The seats of one flight.
+     */
+    private static final class FlightSeats {
+        final int price;
+        final String[] seatIds;
+        final int[] sortedSeats;
+        final long[] taken;
+        /**
+         * The expiry of the hold of each seat held at load time, in milliseconds since the epoch, 0 for the
+         * other seats; null if no seat of the flight was held.
+         */
+        final long[] holdExpires;
+
+        FlightSeats(Flight flight, long nowMillis) {
+            List<Seat> seats = flight.getSeats();
+            price = flight.getPricePerPerson();
+            seatIds = new String[seats.size()];
+            taken = new long[(seats.size() + 63) >>> 6];
+            long[] expires = null;
+            Integer[] order = new Integer[seats.size()];
+            for (int i = 0; i < seatIds.length; i++) {
+                Seat seat = seats.get(i);
+                seatIds[i] = seat.getId();
+                order[i] = i;
+                if (seat.getStatus() == SeatStatus.HELD && seat.getHoldExpires() > nowMillis) {
+                    if (expires == null) {
+                        expires = new long[seatIds.length];
+                    }
+                    expires[i] = seat.getHoldExpires();
+                    taken[i >>> 6] |= 1L << i;
+                } else if (!seat.isAvailableTo(null, nowMillis)) {
+                    taken[i >>> 6] |= 1L << i;
+                }
+            }
+            holdExpires = expires;
+            Arrays.sort(order, (a, b) -> seatIds[a].compareTo(seatIds[b]));
+            sortedSeats = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedSeats[i] = order[i];
+            }
+        }
+
+        /**
+         * @return the bit of the seat, or -1 if the flight has no such seat.
+         */
+        int indexOf(String seatID) {
+            int low = 0;
+            int high = sortedSeats.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int comparison = seatIds[sortedSeats[mid]].compareTo(seatID);
+                if (comparison < 0) {
+                    low = mid + 1;
+                } else if (comparison > 0) {
+                    high = mid - 1;
+                } else {
+                    return sortedSeats[mid];
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Sets the bit of a seat if it is clear, or takes over the seat if its hold has expired.
+         *
+         * @return true if this call took the seat.
+         */
+        boolean take(int seat, long nowMillis) {
+            int word = seat >>> 6;
+            long mask = 1L << seat;
+            long current = (long) WORDS.getVolatile(taken, word);
+            while ((current & mask) == 0) {
+                long witness = (long) WORDS.compareAndExchange(taken, word, current, current | mask);
+                if (witness == current) {
+                    return true;
+                }
+                current = witness;
+            }
+            // The bit stays set for the booking that clears the expired hold
+            long expires = holdExpires == null ? 0 : (long) EXPIRIES.getVolatile(holdExpires, seat);
+            return expires != 0 && expires <= nowMillis && EXPIRIES.compareAndSet(holdExpires, seat, expires, 0L);
+        }
+
+        /**
+         * @return true if the seat was held at load time and its hold has expired since, and no booking
+         *         took it over yet.
+         */
+        boolean isExpired(int seat, long nowMillis) {
+            if (holdExpires == null) {
+                return false;
+            }
+            long expires = (long) EXPIRIES.getVolatile(holdExpires, seat);
+            return expires != 0 && expires <= nowMillis;
+        }
+
+        /**
+         * Clears the bit of a seat if it is set, and forgets the hold the seat had at load time.
+         *
+         * @return true if this call cleared it.
+         */
+        boolean release(int seat) {
+            if (holdExpires != null) {
+                EXPIRIES.setVolatile(holdExpires, seat, 0L);
+            }
+            int word = seat >>> 6;
+            long mask = 1L << seat;
+            long current = (long) WORDS.getVolatile(taken, word);
+            while ((current & mask) != 0) {
+                long witness = (long) WORDS.compareAndExchange(taken, word, current, current & ~mask);
+                if (witness == current) {
+                    return true;
+                }
+                current = witness;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Adds a flight to the inventory, replacing any flight with the same ID, with the state its seats have
+     * in the given model.
+     *
+     * @param departure the IATA code of the departure airport.
+     * @param arrival the IATA code of the arrival airport.
+     * @param flight the flight.
+     */
+    public void addFlight(String departure, String arrival, Flight flight) {
+        flights.put(flight.getId(), new FlightSeats(flight, System.currentTimeMillis()));
+        if (departure != null && arrival != null) {
+            flightByRoute.putIfAbsent(departure + '>' + arrival, flight.getId());
+        }
+    }
+
+    /**
+     * Loads every flight of an airport collection, in the shape written by {@code Modeling}. As in
+     * {@code Transactions.getAvailableSeats}, the route between two airports is served by the first flight
+     * found for it.
+     *
+     * @param collection the airport collection.
+     * @return the inventory.
+     */
+    public static SeatInventory load(MongoCollection<Document> collection) {
+        Map<ObjectId, String> codes = new HashMap<>();
+        for (Document airport : collection.find().projection(Projections.include("IATA_code"))) {
+            codes.put(airport.getObjectId("_id"), airport.getString("IATA_code"));
+        }
+        SeatInventory inventory = new SeatInventory();
+        for (Airport airport : collection.withDocumentClass(Airport.class).withCodecRegistry(AirportCodecProvider.REGISTRY).find()) {
+            for (Flight flight : airport.getFlights()) {
+                inventory.addFlight(airport.getIataCode(), codes.get(flight.getDestination()), flight);
+            }
+        }
+        return inventory;
+    }
+
+    /**
+     * @return the number of flights in the inventory.
+     */
+    public int flights() {
+        return flights.size();
+    }
+
+    /**
+     * @param departure the IATA code of the departure airport.
+     * @param arrival the IATA code of the arrival airport.
+     * @return the ID of the flight serving the route, or null if none is known.
+     */
+    public String flightFor(String departure, String arrival) {
+        return flightByRoute.get(departure + '>' + arrival);
+    }
+
+    /**
+     * @param flightID the ID of the flight.
+     * @return the price per person, or -1 if the flight is not in the inventory.
+     */
+    public int priceOf(String flightID) {
+        FlightSeats seats = flights.get(flightID);
+        return seats == null ? -1 : seats.price;
+    }
+
+    /**
+     * Takes a seat if it is vacant, or if its hold has expired. Of any number of threads racing for the same seat, exactly one gets
+     * {@link Result#BOOKED}.
+     *
+     * @param flightID the ID of the flight.
+     * @param seatID the ID of the seat.
+     * @return the result.
+     */
+    public Result tryBook(String flightID, String seatID) {
+        FlightSeats seats = flights.get(flightID);
+        int seat = seats == null ? -1 : seats.indexOf(seatID);
+        if (seat < 0) {
+            return Result.UNKNOWN;
+        }
+        return seats.take(seat, System.currentTimeMillis()) ? Result.BOOKED : Result.TAKEN;
+    }
+
+    /**
+     * Takes several seats of a flight if they are all vacant. The seats are taken one at a time and given back
+     * if one of them is taken already, so that a competing booking may briefly see some of them as taken.
+     *
+     * @param flightID the ID of the flight.
+     * @param seatIDs the IDs of the seats, without duplicates.
+     * @return {@link Result#BOOKED} if every seat was taken, otherwise none was.
+     */
+    public Result tryBookAll(String flightID, List<String> seatIDs) {
+        FlightSeats seats = flights.get(flightID);
+        if (seats == null) {
+            return Result.UNKNOWN;
+        }
+        int[] indexes = new int[seatIDs.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = seats.indexOf(seatIDs.get(i));
+            if (indexes[i] < 0) {
+                return Result.UNKNOWN;
+            }
+        }
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < indexes.length; i++) {
+            if (!seats.take(indexes[i], now)) {
+                for (int j = 0; j < i; j++) {
+                    seats.release(indexes[j]);
+                }
+                return Result.TAKEN;
+            }
+        }
+        return Result.BOOKED;
+    }
+
+    /**
+     * Makes a taken seat vacant again, e.g. because the booking could not be written to the database.
+     *
+     * @param flightID the ID of the flight.
+     * @param seatID the ID of the seat.
+     * @return true if the seat was taken and is now vacant.
+     */
+    public boolean release(String flightID, String seatID) {
+        FlightSeats seats = flights.get(flightID);
+        int seat = seats == null ? -1 : seats.indexOf(seatID);
+        return seat >= 0 && seats.release(seat);
+    }
+
+    /**
+     * @param flightID the ID of the flight.
+     * @return the IDs of the vacant seats, including the ones whose hold has expired, in seat order, empty if
+     *         the flight is not in the inventory.
+     */
+    public List<String> vacantSeatIds(String flightID) {
+        FlightSeats seats = flights.get(flightID);
+        if (seats == null) {
+            return Collections.emptyList();
+        }
+        long now = System.currentTimeMillis();
+        List<String> vacant = new ArrayList<>();
+        for (int word = 0; word < seats.taken.length; word++) {
+            // Walk the clear bits of the word, and the set bits of expired holds, ignoring the bits past the last seat
+            long taken = (long) WORDS.getVolatile(seats.taken, word);
+            long free = ~taken;
+            if (seats.holdExpires != null) {
+                for (long held = taken; held != 0; held &= held - 1) {
+                    int bit = Long.numberOfTrailingZeros(held);
+                    int seat = (word << 6) + bit;
+                    if (seat < seats.seatIds.length && seats.isExpired(seat, now)) {
+                        free |= 1L << bit;
+                    }
+                }
+            }
+            int limit = Math.min(64, seats.seatIds.length - (word << 6));
+            if (limit < 64) {
+                free &= (1L << limit) - 1;
+            }
+            while (free != 0) {
+                vacant.add(seats.seatIds[(word << 6) + Long.numberOfTrailingZeros(free)]);
+                free &= free - 1;
+            }
+        }
+        return vacant;
+    }
+
+    /**
+     * Checks the inventory under heavy contention and measures its throughput, without a database:
+     * <ol>
+     * <li>a seat held at load time is taken until its hold expires, then granted to exactly one booking;
+     * <li>every thread tries to book every seat of the same flights, in its own random order, and each seat
+     * must be granted exactly once;
+     * <li>every thread then books and releases random seats of a few hot flights as fast as it can, and the
+     * number of seat-state transitions per second is printed.
+     * </ol>
+     *
+     * @param args optional number of threads, flights and seconds of the throughput run.
+     * @throws Exception if a thread fails or a check does not hold.
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int flightCount = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        long seconds = args.length > 2 ? Long.parseLong(args[2]) : 5;
+        int seatsPerFlight = 100;
+
+        SeatInventory inventory = new SeatInventory();
+        List<String> seatIds = new ArrayList<>(seatsPerFlight);
+        for (int i = 0; i < seatsPerFlight; i++) {
+            seatIds.add((i / 6 + 1) + String.valueOf((char) ('A' + i % 6)));
+        }
+        for (int f = 0; f < flightCount; f++) {
+            List<Seat> seats = new ArrayList<>(seatsPerFlight);
+            for (String seatId : seatIds) {
+                seats.add(new Seat(SeatStatus.VACANT, seatId, null, null, null, null, 0));
+            }
+            inventory.addFlight("F" + f, "T" + f, new Flight("FL" + f, seatsPerFlight, FlightTimes.UNKNOWN_DEPARTURE,
+                    null, 60, 100, seats, null));
+        }
+
+        checkHolds();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // 1. Every seat is granted to exactly one of the threads racing for it
+            AtomicIntegerArray grants = new AtomicIntegerArray(flightCount * seatsPerFlight);
+            CountDownLatch startSignal = new CountDownLatch(1);
+            List<Future<?>> racers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long seed = t;
+                racers.add(executor.submit(() -> {
+                    int[] order = new SplittableRandom(seed).ints(0, flightCount * seatsPerFlight).distinct()
+                            .limit(flightCount * seatsPerFlight).toArray();
+                    startSignal.await();
+                    for (int slot : order) {
+                        if (inventory.tryBook("FL" + slot / seatsPerFlight, seatIds.get(slot % seatsPerFlight)) == Result.BOOKED) {
+                            grants.incrementAndGet(slot);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            startSignal.countDown();
+            for (Future<?> racer : racers) {
+                racer.get();
+            }
+            int wrong = 0;
+            for (int slot = 0; slot < grants.length(); slot++) {
+                if (grants.get(slot) != 1) {
+                    wrong++;
+                }
+            }
+            int vacantLeft = 0;
+            for (int f = 0; f < flightCount; f++) {
+                vacantLeft += inventory.vacantSeatIds("FL" + f).size();
+            }
+            System.out.printf("%d threads raced for %d seats: %d seats granted other than exactly once, %d left vacant%n",
+                    threads, grants.length(), wrong, vacantLeft);
+            if (wrong != 0 || vacantLeft != 0) {
+                throw new IllegalStateException("The inventory granted a seat other than exactly once");
+            }
+
+            // 2. Throughput of book and release on a few hot flights
+            for (int f = 0; f < flightCount; f++) {
+                for (String seatId : seatIds) {
+                    inventory.release("FL" + f, seatId);
+                }
+            }
+            String[] hotFlights = {"FL0", "FL1", "FL2", "FL3"};
+            long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+            List<Future<Long>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long seed = 1000 + t;
+                workers.add(executor.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    long transitions = 0;
+                    while (System.nanoTime() < deadline) {
+                        for (int i = 0; i < 1024; i++) {
+                            String flightID = hotFlights[random.nextInt(hotFlights.length)];
+                            String seatID = seatIds.get(random.nextInt(seatsPerFlight));
+                            if (inventory.tryBook(flightID, seatID) == Result.BOOKED) {
+                                transitions++;
+                                if (inventory.release(flightID, seatID)) {
+                                    transitions++;
+                                }
+                            }
+                        }
+                    }
+                    return transitions;
+                }));
+            }
+            long transitions = 0;
+            for (Future<Long> worker : workers) {
+                transitions += worker.get();
+            }
+            System.out.printf("%d threads on %d hot flights: %.1f million seat-state transitions per second%n",
+                    threads, hotFlights.length, transitions / (seconds * 1e6));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Loads a flight with a seat whose hold expires shortly, one whose hold already expired and a vacant one,
+     * and checks that the held seat is only granted once its hold has expired, and then only once.
+     */
+    private static void checkHolds() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        SeatInventory inventory = new SeatInventory();
+        inventory.addFlight("H", "D", new Flight("HELD", 3, FlightTimes.UNKNOWN_DEPARTURE, null, 60, 100, List.of(
+                new Seat(SeatStatus.HELD, "1A", null, null, "holder", null, 0, now + 200),
+                new Seat(SeatStatus.HELD, "1B", null, null, "holder", null, 0, now - 1_000),
+                new Seat(SeatStatus.VACANT, "1C", null, null, null, null, 0)), null));
+
+        boolean heldRefused = inventory.tryBook("HELD", "1A") == Result.TAKEN
+                && inventory.vacantSeatIds("HELD").equals(List.of("1B", "1C"));
+        Thread.sleep(300);
+        boolean expiredListed = inventory.vacantSeatIds("HELD").equals(List.of("1A", "1B", "1C"));
+        boolean grantedOnce = inventory.tryBook("HELD", "1A") == Result.BOOKED
+                && inventory.tryBook("HELD", "1A") == Result.TAKEN
+                && inventory.vacantSeatIds("HELD").equals(List.of("1B", "1C"));
+        boolean released = inventory.release("HELD", "1A") && inventory.tryBook("HELD", "1A") == Result.BOOKED
+                && inventory.tryBook("HELD", "1A") == Result.TAKEN;
+        System.out.printf("Held seat refused while held: %b, listed once expired: %b, granted once: %b, released: %b%n",
+                heldRefused, expiredListed, grantedOnce, released);
+        if (!heldRefused || !expiredListed || !grantedOnce || !released) {
+            throw new IllegalStateException("The inventory did not decide a held seat by the expiry of its hold");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.example;
+
+/**
+ * The {@code SeatStatus} enum is the status of a seat, stored in memory as a constant instead of the
+ * {@code Status} string of the documents, so that availability checks are reference comparisons.
+ * {@link #label()} is the value stored in MongoDB.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public enum SeatStatus {
+
+    VACANT("Vacant"),
+    BOOKED("Booked"),
+    /**
+     * Held for a person during checkout, until the expiry of the hold, see {@link Seat#getHoldExpires()}.
+     */
+    HELD("Held");
+
+    private static final SeatStatus[] VALUES = values();
+
+    private final String label;
+
+    SeatStatus(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @return the value of the {@code Status} field, e.g. {@code Vacant}.
+     */
+    public String label() {
+        return label;
+    }
+
+    /**
+     * Reads the value of a {@code Status} field.
+     *
+     * @param label the value, e.g. {@code Vacant}, in any case.
+     * @return the status, or null if the value is null or unknown.
+     */
+    public static SeatStatus fromLabel(String label) {
+        if (label == null) {
+            return null;
+        }
+        for (SeatStatus status : VALUES) {
+            if (status.label.equalsIgnoreCase(label)) {
+                return status;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,337 @@
+package org.example;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The {@code ShardingBootstrap} class turns the containers of {@code docker-compose.yml} into a working sharded
+ * cluster and loads the airport export into a sharded collection, so that the data is actually spread over
+ * the four shards instead of sitting on the primary shard.
+ *
+ * <p>The steps, all configured in {@value #DEFAULT_CONFIG_FILE}, are:
+ * <ul>
+ * <li>Initiating the config server and shard replica sets, skipping those already initiated.
+ * <li>Adding the shards to the cluster through mongos.
+ * <li>Enabling sharding on the database and sharding the collection on a hashed or ranged key.
+ * <li>Pre-splitting the empty collection into chunks spread over every shard, before the bulk load.
+ * <li>Optionally pinning key ranges to zones, e.g. countries to the shards of their region.
+ * <li>Loading the data with {@link MongoDBShardedConnection#importData} and reporting the chunks per shard.
+ * </ul>
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class ShardingBootstrap {
+
+    /**
+     * Configuration file read by {@link #main}.
+     */
+    public static final String DEFAULT_CONFIG_FILE = "sharding.properties";
+
+    private static final int ALREADY_INITIALIZED = 23;
+    private static final long PRIMARY_TIMEOUT_MILLIS = 60_000;
+
+    private final Properties config;
+
+    /**
+     * Constructs a bootstrap tool with the given settings.
+     *
+     * @param config the cluster, namespace, shard key, pre-splitting and zone settings.
+     */
+    public ShardingBootstrap(Properties config) {
+        this.config = config;
+    }
+
+    /**
+     * @return the namespace of the sharded collection, as {@code database.collection}.
+     */
+    public String namespace() {
+        return config.getProperty("database") + "." + config.getProperty("collection");
+    }
+
+    /**
+     * Initiates the config server replica set and every shard replica set, each with a single member,
+     * and waits until each has elected its primary. Replica sets already initiated are left unchanged.
+     */
+    public void initiateReplicaSets() {
+        initiate(config.getProperty("config.replSet"), config.getProperty("config.member"),
+                config.getProperty("config.hostAddress"), true);
+        for (String shard : shards()) {
+            initiate(shard, config.getProperty("shard." + shard + ".member"),
+                    config.getProperty("shard." + shard + ".hostAddress"), false);
+        }
+    }
+
+    /**
+     * Initiates a single-member replica set and waits for its primary.
+     *
+     * @param replSet the name of the replica set.
+     * @param member the address of the member inside the compose network.
+     * @param hostAddress the address of the member from this machine.
+     * @param configServer whether the replica set is the config server one.
+     */
+    private void initiate(String replSet, String member, String hostAddress, boolean configServer) {
+        try (MongoClient client = MongoClients.create("mongodb://" + hostAddress + "/?directConnection=true")) {
+            MongoDatabase admin = client.getDatabase("admin");
+            Document replSetConfig = new Document("_id", replSet)
+                    .append("members", Collections.singletonList(new Document("_id", 0).append("host", member)));
+            if (configServer) {
+                replSetConfig.append("configsvr", true);
+            }
+            try {
+                admin.runCommand(new Document("replSetInitiate", replSetConfig));
+                System.out.println("Initiated replica set " + replSet);
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() != ALREADY_INITIALIZED) {
+                    throw e;
+                }
+                System.out.println("Replica set " + replSet + " already initiated");
+            }
+            waitForPrimary(admin, replSet);
+        }
+    }
+
+    /**
+     * Polls a member until it reports being primary.
+     *
+     * @param admin the admin database of the member.
+     * @param replSet the name of the replica set, for error messages.
+     */
+    private void waitForPrimary(MongoDatabase admin, String replSet) {
+        long deadline = System.currentTimeMillis() + PRIMARY_TIMEOUT_MILLIS;
+        while (!admin.runCommand(new Document("isMaster", 1)).getBoolean("ismaster", false)) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("No primary elected in replica set " + replSet);
+            }
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the primary of " + replSet, e);
+            }
+        }
+    }
+
+    /**
+     * Adds every shard replica set to the cluster. Adding a shard that is already part of it is a no-op.
+     *
+     * @param mongos a client connected to the mongos router.
+     */
+    public void addShards(MongoClient mongos) {
+        MongoDatabase admin = mongos.getDatabase("admin");
+        for (String shard : shards()) {
+            admin.runCommand(new Document("addShard", shard + "/" + config.getProperty("shard." + shard + ".member"))
+                    .append("name", shard));
+            System.out.println("Added shard " + shard);
+        }
+    }
+
+    /**
+     * Enables sharding on the database and shards the still empty collection on the configured key.
+     * A hashed key is pre-split with {@code numInitialChunks}; a ranged key is split at the configured
+     * points and the resulting chunks are moved round-robin to the shards.
+     *
+     * @param mongos a client connected to the mongos router.
+     */
+    public void shardCollection(MongoClient mongos) {
+        MongoDatabase admin = mongos.getDatabase("admin");
+        String field = config.getProperty("shardKey.field");
+        boolean hashed = isHashed();
+
+        admin.runCommand(new Document("enableSharding", config.getProperty("database")));
+
+        Document command = new Document("shardCollection", namespace())
+                .append("key", new Document(field, hashed ? "hashed" : 1));
+        if (hashed) {
+            int chunks = Integer.parseInt(config.getProperty("presplit.chunks", "0").trim());
+            if (chunks > 0) {
+                command.append("numInitialChunks", chunks);
+            }
+        }
+        admin.runCommand(command);
+        System.out.println("Sharded " + namespace() + " on " + command.get("key", Document.class).toJson());
+
+        if (!hashed) {
+            List<String> points = list("presplit.points");
+            List<String> shards = shards();
+            for (String point : points) {
+                admin.runCommand(new Document("split", namespace()).append("middle", new Document(field, point)));
+            }
+            // Chunk i starts at split point i - 1: leave the first one where it is and deal out the others
+            for (int i = 0; i < points.size(); i++) {
+                String target = shards.get((i + 1) % shards.size());
+                try {
+                    admin.runCommand(new Document("moveChunk", namespace())
+                            .append("find", new Document(field, points.get(i)))
+                            .append("to", target));
+                } catch (MongoCommandException e) {
+                    // The chunk may already live on the target shard
+                    System.out.println("Chunk starting at " + points.get(i) + " not moved: " + e.getErrorMessage());
+                }
+            }
+            System.out.println("Pre-split " + namespace() + " at " + points);
+        }
+    }
+
+    /**
+     * Assigns shards to the configured zones and pins the key ranges of each zone.
+     *
+     * @param mongos a client connected to the mongos router.
+     */
+    public void configureZones(MongoClient mongos) {
+        List<String> zones = list("zones");
+        if (zones.isEmpty()) {
+            return;
+        }
+        if (isHashed()) {
+            throw new IllegalArgumentException("Zones by region need a ranged shard key, not a hashed one");
+        }
+
+        MongoDatabase admin = mongos.getDatabase("admin");
+        String field = config.getProperty("shardKey.field");
+        for (String zone : zones) {
+            for (String shard : list("zone." + zone + ".shards")) {
+                admin.runCommand(new Document("addShardToZone", shard).append("zone", zone));
+            }
+            for (String range : list("zone." + zone + ".ranges")) {
+                String[] bounds = range.split(":");
+                if (bounds.length != 2) {
+                    throw new IllegalArgumentException("Invalid range for zone " + zone + ": " + range);
+                }
+                admin.runCommand(new Document("updateZoneKeyRange", namespace())
+                        .append("min", new Document(field, bounds[0]))
+                        .append("max", new Document(field, bounds[1]))
+                        .append("zone", zone));
+            }
+            System.out.println("Configured zone " + zone);
+        }
+    }
+
+    /**
+     * Counts the chunks of the sharded collection on every shard, reading the config database through mongos.
+     *
+     * @param mongos a client connected to the mongos router.
+     * @return the number of chunks keyed by shard name.
+     */
+    public Map<String, Integer> chunkDistribution(MongoClient mongos) {
+        MongoDatabase configDb = mongos.getDatabase("config");
+        Document collection = configDb.getCollection("collections").find(Filters.eq("_id", namespace())).first();
+
+        // Chunks are keyed by namespace up to 4.4 and by collection UUID from 5.0 on
+        List<org.bson.conversions.Bson> owners = new ArrayList<>();
+        owners.add(Filters.eq("ns", namespace()));
+        if (collection != null && collection.get("uuid") != null) {
+            owners.add(Filters.eq("uuid", collection.get("uuid")));
+        }
+
+        MongoCollection<Document> chunks = configDb.getCollection("chunks");
+        Map<String, Integer> distribution = new LinkedHashMap<>();
+        for (String shard : shards()) {
+            distribution.put(shard, 0);
+        }
+        for (Document group : chunks.aggregate(Arrays.asList(
+                Aggregates.match(Filters.or(owners)),
+                Aggregates.group("$shard", Accumulators.sum("chunks", 1)),
+                Aggregates.sort(Sorts.ascending("_id"))))) {
+            distribution.put(group.getString("_id"), group.getInteger("chunks"));
+        }
+        return distribution;
+    }
+
+    /**
+     * @return whether the shard key is hashed rather than ranged.
+     */
+    private boolean isHashed() {
+        String type = config.getProperty("shardKey.type", "hashed").trim();
+        if (!type.equals("hashed") && !type.equals("ranged")) {
+            throw new IllegalArgumentException("shardKey.type must be hashed or ranged: " + type);
+        }
+        return type.equals("hashed");
+    }
+
+    /**
+     * @return the names of the shard replica sets.
+     */
+    private List<String> shards() {
+        return list("shards");
+    }
+
+    /**
+     * Reads a comma-separated setting.
+     *
+     * @param key the setting key.
+     * @return the trimmed, non-empty values.
+     */
+    private List<String> list(String key) {
+        List<String> values = new ArrayList<>();
+        for (String value : config.getProperty(key, "").split(",")) {
+            if (!value.isBlank()) {
+                values.add(value.trim());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Bootstraps the cluster, loads the airport export and prints the chunk distribution.
+     *
+     * @param args optional flags: {@code --skip-init} to leave the replica sets and shards alone and
+     *             {@code --skip-load} to stop after sharding the collection.
+     */
+    public static void main(String[] args) {
+        List<String> flags = Arrays.asList(args);
+        Properties config = new Properties();
+        try (Reader reader = new FileReader(System.getProperty("sharding.config", DEFAULT_CONFIG_FILE))) {
+            config.load(reader);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        ShardingBootstrap bootstrap = new ShardingBootstrap(config);
+
+        try (ConnectionRegistry registry = ConnectionRegistry.load()) {
+            if (!flags.contains("--skip-init")) {
+                bootstrap.initiateReplicaSets();
+            }
+            MongoClient mongos = registry.getClient(ConnectionRegistry.SHARDED);
+            if (!flags.contains("--skip-init")) {
+                bootstrap.addShards(mongos);
+            }
+            bootstrap.shardCollection(mongos);
+            bootstrap.configureZones(mongos);
+
+            if (!flags.contains("--skip-load")) {
+                MongoCollection<Document> collection = mongos.getDatabase(config.getProperty("database"))
+                        .getCollection(config.getProperty("collection"));
+                long imported = MongoDBShardedConnection.importData(collection, MongoDBShardedConnection.DATA_FILE,
+                        MongoDBShardedConnection.DEFAULT_BATCH_SIZE);
+                System.out.println("Imported " + imported + " airports");
+            }
+
+            System.out.println("Chunks per shard for " + bootstrap.namespace() + ":");
+            bootstrap.chunkDistribution(mongos).forEach((shard, chunks) -> System.out.println("  " + shard + ": " + chunks));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@code TimingWheel} class runs tasks after a delay, for very many pending tasks at a time, with a
+ * hierarchical timing wheel: a few levels of buckets, where a bucket of level 0 covers one tick, a bucket of
+ * level 1 covers a whole turn of level 0, and so on. A task is linked into the bucket of the lowest level
+ * that its deadline shares a bucket of the next level with; when the clock enters a bucket of a higher
+ * level, the tasks in it move down, until they reach level 0 and run.
+ *
+ * <p>Scheduling and cancelling take constant time whatever the number of pending tasks: both only queue
+ * the request, and the clock thread links or unlinks the task on its next tick. A task moves down at most
+ * once per level. Tasks run on the given executor, no earlier than their deadline and usually less than one
+ * tick later.
+ *
+ * @version 1.0
+ * @since 2026-10-17
+ * @author Andrea Moleri
+ */
+public class TimingWheel implements AutoCloseable {
+
+    private static final int BITS = 9;
+    private static final int WHEEL_SIZE = 1 << BITS;
+    private static final int MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    /**
+     * A task scheduled on the wheel.
+     */
+    public static final class Timeout {
+        private final long deadline;
+        private final Runnable task;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private final TimingWheel wheel;
+        private Timeout previous;
+        private Timeout next;
+        private Timeout[] bucket;
+        private int index;
+
+        private Timeout(TimingWheel wheel, long deadline, Runnable task) {
+            this.wheel = wheel;
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        /**
+         * Cancels the task if it has not run yet.
+         *
+         * @return true if the task will not run because of this call.
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) {
+                return false;
+            }
+            wheel.pending.decrementAndGet();
+            wheel.cancelled.add(this);
+            return true;
+        }
+
+        /**
+         * @return true if the task has neither run nor been cancelled.
+         */
+        public boolean isPending() {
+            return state.get() == PENDING;
+        }
+
+        /**
+         * @return true if the task was cancelled.
+         */
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+    }
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final Executor executor;
+    private final Timeout[][] heads = new Timeout[LEVELS][WHEEL_SIZE];
+    private final ConcurrentLinkedQueue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread clock;
+    private volatile boolean running = true;
+    private long tick;
+
+    /**
+     * Starts a wheel.
+     *
+     * @param tick the duration of a tick, the resolution of the deadlines.
+     * @param unit the unit of the tick.
+     * @param executor the executor the tasks run on.
+     */
+    public TimingWheel(long tick, TimeUnit unit, Executor executor) {
+        this.tickNanos = unit.toNanos(tick);
+        this.executor = executor;
+        this.startNanos = System.nanoTime();
+        this.clock = new Thread(this::run, "timing-wheel");
+        this.clock.setDaemon(true);
+        this.clock.start();
+    }
+
+    /**
+     * Schedules a task.
+     *
+     * @param delay the delay after which the task runs.
+     * @param unit the unit of the delay.
+     * @param task the task.
+     * @return the handle the task can be cancelled with.
+     */
+    public Timeout schedule(long delay, TimeUnit unit, Runnable task) {
+        long elapsed = System.nanoTime() - startNanos + Math.max(0, unit.toNanos(delay));
+        Timeout timeout = new Timeout(this, (elapsed + tickNanos - 1) / tickNanos, task);
+        pending.incrementAndGet();
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * @return the number of tasks scheduled that have neither run nor been cancelled.
+     */
+    public int pending() {
+        return pending.get();
+    }
+
+    private void run() {
+        List<Timeout> expired = new ArrayList<>();
+        while (running) {
+            long now = (System.nanoTime() - startNanos) / tickNanos;
+            drainCancelled();
+            drainScheduled(expired);
+            while (tick < now) {
+                tick++;
+                // Move the tasks of the higher-level buckets the clock just entered down, highest level first
+                int level = 1;
+                while (level < LEVELS && (tick & ((1L << (BITS * level)) - 1)) == 0) {
+                    level++;
+                }
+                for (int l = level - 1; l >= 1; l--) {
+                    Timeout timeout = detach(l, (int) ((tick >>> (BITS * l)) & MASK));
+                    while (timeout != null) {
+                        Timeout next = timeout.next;
+                        place(timeout, expired);
+                        timeout = next;
+                    }
+                }
+                Timeout timeout = detach(0, (int) (tick & MASK));
+                while (timeout != null) {
+                    Timeout next = timeout.next;
+                    place(timeout, expired);
+                    timeout = next;
+                }
+            }
+            for (Timeout timeout : expired) {
+                if (timeout.state.compareAndSet(PENDING, EXPIRED)) {
+                    pending.decrementAndGet();
+                    executor.execute(timeout.task);
+                }
+            }
+            expired.clear();
+            LockSupport.parkNanos(startNanos + (tick + 1) * tickNanos - System.nanoTime());
+        }
+    }
+
+    private void drainScheduled(List<Timeout> expired) {
+        Timeout timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.state.get() == PENDING) {
+                place(timeout, expired);
+            }
+        }
+    }
+
+    private void drainCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            unlink(timeout);
+        }
+    }
+
+    /**
+     * Links a task into the bucket of the lowest level its deadline shares a bucket of the next level with,
+     * or adds it to the expired tasks if its deadline has passed. A deadline beyond the highest level goes to
+     * a bucket of the highest level and is placed again when the clock enters that bucket.
+     */
+    private void place(Timeout timeout, List<Timeout> expired) {
+        timeout.previous = null;
+        timeout.next = null;
+        timeout.bucket = null;
+        if (timeout.state.get() != PENDING) {
+            return;
+        }
+        if (timeout.deadline <= tick) {
+            expired.add(timeout);
+            return;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && (timeout.deadline >>> (BITS * (level + 1))) != (tick >>> (BITS * (level + 1)))) {
+            level++;
+        }
+        Timeout[] bucket = heads[level];
+        int index = (int) ((timeout.deadline >>> (BITS * level)) & MASK);
+        timeout.bucket = bucket;
+        timeout.index = index;
+        timeout.next = bucket[index];
+        if (timeout.next != null) {
+            timeout.next.previous = timeout;
+        }
+        bucket[index] = timeout;
+    }
+
+    private void unlink(Timeout timeout) {
+        Timeout[] bucket = timeout.bucket;
+        if (bucket == null) {
+            return;
+        }
+        if (timeout.previous == null) {
+            bucket[timeout.index] = timeout.next;
+        } else {
+            timeout.previous.next = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.previous = timeout.previous;
+        }
+        timeout.previous = null;
+        timeout.next = null;
+        timeout.bucket = null;
+    }
+
+    private Timeout detach(int level, int index) {
+        Timeout head = heads[level][index];
+        heads[level][index] = null;
+        return head;
+    }
+
+    /**
+     * Stops the clock. Pending tasks do not run.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(clock);
+        try {
+            clock.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Schedules a large number of tasks with random delays, cancels some of them, and checks that every other
+     * task runs once, not before its deadline, and how late.
+     *
+     * @param args optional number of tasks and longest delay in milliseconds.
+     * @throws InterruptedException if interrupted while waiting for the tasks.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        long maxDelayMillis = args.length > 1 ? Long.parseLong(args[1]) : 10_000;
+
+        AtomicLong ran = new AtomicLong();
+        AtomicLong early = new AtomicLong();
+        AtomicLong maxLateNanos = new AtomicLong();
+        AtomicInteger ranCancelled = new AtomicInteger();
+        SplittableRandom random = new SplittableRandom(42);
+
+        try (TimingWheel wheel = new TimingWheel(10, TimeUnit.MILLISECONDS, Runnable::run)) {
+            long start = System.nanoTime();
+            long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+            List<Timeout> toCancelList = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                long delayNanos = TimeUnit.MILLISECONDS.toNanos(random.nextLong(maxDelayMillis));
+                long deadline = System.nanoTime() + delayNanos;
+                // Only tasks far enough out to still be pending once all are scheduled are cancelled
+                boolean toCancel = i % 2 == 1 && delayNanos >= maxDelayNanos / 2;
+                Timeout timeout = wheel.schedule(delayNanos, TimeUnit.NANOSECONDS, () -> {
+                    long late = System.nanoTime() - deadline;
+                    if (toCancel) {
+                        ranCancelled.incrementAndGet();
+                    }
+                    if (late < 0) {
+                        early.incrementAndGet();
+                    }
+                    maxLateNanos.accumulateAndGet(late, Math::max);
+                    ran.incrementAndGet();
+                });
+                if (toCancel) {
+                    toCancelList.add(timeout);
+                }
+            }
+            long scheduledNanos = System.nanoTime() - start;
+            int cancelledCount = 0;
+            for (Timeout timeout : toCancelList) {
+                if (timeout.cancel()) {
+                    cancelledCount++;
+                }
+            }
+            System.out.printf("Scheduled %d tasks in %d ms, cancelled %d%n", count,
+                    TimeUnit.NANOSECONDS.toMillis(scheduledNanos), cancelledCount);
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis + 2_000);
+            while (wheel.pending() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+            }
+            long expected = count - cancelledCount;
+            System.out.printf("%d of %d tasks ran, %d cancelled tasks ran, %d ran early, at most %.1f ms late%n",
+                    ran.get(), expected, ranCancelled.get(), early.get(), maxLateNanos.get() / 1e6);
+            if (ran.get() != expected || ranCancelled.get() != 0 || early.get() != 0) {
+                throw new IllegalStateException("The wheel ran a task other than once, or before its deadline");
+            }
+        }
+    }
+}